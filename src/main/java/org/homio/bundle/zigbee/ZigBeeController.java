@@ -4,8 +4,9 @@ import com.zsmartsystems.zigbee.zcl.clusters.ZclIasZoneCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclOnOffCluster;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
@@ -16,9 +17,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.model.OptionModel;
-import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
+import org.homio.bundle.api.model.Status;
 import org.homio.bundle.zigbee.model.ZigBeeEndpointEntity;
 import org.homio.bundle.zigbee.model.ZigbeeCoordinatorEntity;
+import org.homio.bundle.zigbee.service.ZigBeeCoordinatorService;
+import org.homio.bundle.zigbee.service.ZigBeeDeviceService;
+import org.homio.bundle.zigbee.service.ZigbeeEndpointService;
 
 @Log4j2
 @RestController
@@ -51,27 +55,26 @@ public class ZigBeeController {
             @RequestParam(value = "includeClusterName", required = false)
                     boolean includeClusterName) {
         List<OptionModel> list = new ArrayList<>();
-        for (ZigbeeCoordinatorEntity coordinator :
-                entityContext.findAll(ZigbeeCoordinatorEntity.class)) {
-            for (ZigBeeDeviceEntity device : coordinator.getOnlineDevices()) {
-                ZigBeeEndpointEntity endpoint =
-                        device.getEndpoints().stream()
-                                .filter(f -> f.getName().equals(clusterName))
-                                .findAny()
-                                .orElse(null);
-
-                // add zigBeeDevice
-                if (endpoint != null) {
-                    String key =
-                            coordinator.getEntityID()
-                                    + ":"
-                                    + device.getIeeeAddress()
-                                    + (includeClusterName ? "/" + endpoint.getName() : "");
-                    list.add(
-                            OptionModel.of(
-                                    key, endpoint.getDescription() + " - " + device.getTitle()));
+        for (ZigBeeCoordinatorService coordinator : getCoordinators()) {
+            Map<ZigBeeDeviceService, ZigBeeEndpointEntity> deviceEndpoints = new LinkedHashMap<>();
+            for (ZigbeeEndpointService endpointService : coordinator.getDeviceIndex().getEndpointsByName(clusterName)) {
+                ZigBeeDeviceService device = endpointService.getZigBeeDeviceService();
+                if (isOnline(device)) {
+                    deviceEndpoints.putIfAbsent(device, endpointService.getEntity());
                 }
             }
+
+            deviceEndpoints.forEach((device, endpoint) -> {
+                // add zigBeeDevice
+                String key =
+                        coordinator.getEntity().getEntityID()
+                                + ":"
+                                + device.getEntity().getIeeeAddress()
+                                + (includeClusterName ? "/" + endpoint.getName() : "");
+                list.add(
+                        OptionModel.of(
+                                key, endpoint.getDescription() + " - " + device.getEntity().getTitle()));
+            });
         }
         return list;
     }
@@ -98,15 +101,13 @@ public class ZigBeeController {
     public Collection<OptionModel> filterByModelIdentifier(
             @PathVariable("modelIdentifier") String modelIdentifier) {
         List<OptionModel> list = new ArrayList<>();
-        for (ZigbeeCoordinatorEntity coordinator :
-                entityContext.findAll(ZigbeeCoordinatorEntity.class)) {
-            for (ZigBeeDeviceEntity zigBeeDevice : coordinator.getOnlineDevices()) {
-                String deviceMI = zigBeeDevice.getModelIdentifier();
-                if (deviceMI != null && deviceMI.startsWith(modelIdentifier)) {
+        for (ZigBeeCoordinatorService coordinator : getCoordinators()) {
+            for (ZigBeeDeviceService device : coordinator.getDeviceIndex().getDevicesByModelPrefix(modelIdentifier)) {
+                if (isOnline(device)) {
                     list.add(
                             OptionModel.of(
-                                    coordinator.getEntityID() + ":" + zigBeeDevice.getIeeeAddress(),
-                                    zigBeeDevice.getTitle()));
+                                    coordinator.getEntity().getEntityID() + ":" + device.getEntity().getIeeeAddress(),
+                                    device.getEntity().getTitle()));
                 }
             }
         }
@@ -117,28 +118,41 @@ public class ZigBeeController {
     private Collection<OptionModel> filterByClusterIdAndEndpointCount(
             Integer clusterId, Integer endpointCount, boolean includeClusterName) {
         List<OptionModel> list = new ArrayList<>();
-        for (ZigbeeCoordinatorEntity coordinator :
-                entityContext.findAll(ZigbeeCoordinatorEntity.class)) {
-            for (ZigBeeDeviceEntity device : coordinator.getOnlineDevices()) {
-                List<ZigBeeEndpointEntity> endpoints =
-                        device.getEndpoints().stream()
-                                .filter(e -> containsAny(e.getService().getCluster(), clusterId))
-                                .collect(Collectors.toList());
-
-                if (!endpoints.isEmpty()) {
-                    if (endpointCount == null || endpointCount == endpoints.size()) {
-                        String key =
-                                coordinator.getEntityID()
-                                        + ":"
-                                        + device.getIeeeAddress()
-                                        + (includeClusterName
-                                                ? "/" + endpoints.iterator().next().getName()
-                                                : "");
-                        list.add(OptionModel.of(key, device.getTitle()));
-                    }
+        for (ZigBeeCoordinatorService coordinator : getCoordinators()) {
+            Map<ZigBeeDeviceService, List<ZigBeeEndpointEntity>> deviceEndpoints = new LinkedHashMap<>();
+            for (ZigbeeEndpointService endpointService : coordinator.getDeviceIndex().getEndpointsByClusterId(clusterId)) {
+                ZigBeeDeviceService device = endpointService.getZigBeeDeviceService();
+                if (isOnline(device)) {
+                    deviceEndpoints.computeIfAbsent(device, d -> new ArrayList<>()).add(endpointService.getEntity());
                 }
             }
+
+            deviceEndpoints.forEach((device, endpoints) -> {
+                if (endpointCount == null || endpointCount == endpoints.size()) {
+                    String key =
+                            coordinator.getEntity().getEntityID()
+                                    + ":"
+                                    + device.getEntity().getIeeeAddress()
+                                    + (includeClusterName
+                                            ? "/" + endpoints.iterator().next().getName()
+                                            : "");
+                    list.add(OptionModel.of(key, device.getEntity().getTitle()));
+                }
+            });
         }
         return list;
     }
+
+    private List<ZigBeeCoordinatorService> getCoordinators() {
+        List<ZigBeeCoordinatorService> coordinators = new ArrayList<>();
+        for (ZigbeeCoordinatorEntity coordinator :
+                entityContext.findAll(ZigbeeCoordinatorEntity.class)) {
+            coordinator.optService().ifPresent(coordinators::add);
+        }
+        return coordinators;
+    }
+
+    private static boolean isOnline(ZigBeeDeviceService device) {
+        return device.getEntity().getStatus() == Status.ONLINE;
+    }
 }
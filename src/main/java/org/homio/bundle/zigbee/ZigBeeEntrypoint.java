@@ -1,6 +1,7 @@
 package org.homio.bundle.zigbee;
 
 import com.fazecast.jSerialComm.SerialPort;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,8 @@ import org.homio.bundle.api.entity.zigbee.ZigBeeBaseCoordinatorEntity;
 import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
 import org.homio.bundle.zigbee.model.ZigbeeCoordinatorEntity;
 import org.homio.bundle.zigbee.model.ZigbeeCoordinatorEntity.ZigbeeCoordinator;
+import org.homio.bundle.zigbee.service.ZigBeeDeviceService;
+import org.homio.bundle.zigbee.util.ZigBeeDefinitionRegistry;
 import org.homio.bundle.api.util.Lang;
 
 @Log4j2
@@ -26,6 +29,8 @@ import org.homio.bundle.api.util.Lang;
 @RequiredArgsConstructor
 public class ZigBeeEntrypoint implements BundleEntrypoint {
 
+    private static final Duration DEFINITIONS_CHECK_INTERVAL = Duration.ofSeconds(30);
+
     private final EntityContext entityContext;
 
     @Override
@@ -55,6 +60,22 @@ public class ZigBeeEntrypoint implements BundleEntrypoint {
                     newValue.createOrUpdateVarGroup(entityContext);
                 }
             });
+
+        // activate user device definitions/cluster configuration without coordinator restart
+        entityContext.bgp().builder("zigbee-definitions-watch").delay(DEFINITIONS_CHECK_INTERVAL).interval(DEFINITIONS_CHECK_INTERVAL)
+                     .cancelOnError(false).execute(this::reloadDefinitions);
+    }
+
+    private void reloadDefinitions() {
+        if (ZigBeeDefinitionRegistry.reloadIfModified()) {
+            for (ZigbeeCoordinatorEntity coordinator : entityContext.findAll(ZigbeeCoordinatorEntity.class)) {
+                coordinator.optService().ifPresent(service -> {
+                    for (ZigBeeDeviceService deviceService : service.getRegisteredDevices()) {
+                        deviceService.definitionsReloaded();
+                    }
+                });
+            }
+        }
     }
 
     private <T extends ZigBeeBaseCoordinatorEntity> void testCoordinators(List<T> entities, Map<String, SerialPort> ports,
@@ -0,0 +1,95 @@
+package org.homio.bundle.zigbee;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.homio.bundle.api.EntityContext;
+import org.homio.bundle.api.console.ConsolePluginTable;
+import org.homio.bundle.api.model.HasEntityIdentifier;
+import org.homio.bundle.api.ui.field.UIField;
+import org.homio.bundle.zigbee.internal.SerialPortMetrics;
+import org.homio.bundle.zigbee.service.ZigBeeCoordinatorService;
+
+/**
+ * Console table with serial link metrics between coordinator and dongle
+ */
+@RequiredArgsConstructor
+public class ZigBeeSerialConsolePlugin
+        implements ConsolePluginTable<ZigBeeSerialConsolePlugin.SerialMetricDescription> {
+
+    @Getter private final EntityContext entityContext;
+    private final ZigBeeCoordinatorService coordinatorService;
+
+    @Override
+    public int order() {
+        return 510;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return coordinatorService.getSerialPortMetrics() != null;
+    }
+
+    @Override
+    public String getParentTab() {
+        return "zigbee";
+    }
+
+    @Override
+    public boolean hasRefreshIntervalSetting() {
+        return true;
+    }
+
+    @Override
+    public Collection<SerialMetricDescription> getValue() {
+        SerialPortMetrics metrics = coordinatorService.getSerialPortMetrics();
+        if (metrics == null) {
+            return Collections.emptyList();
+        }
+        SerialPortMetrics.Snapshot snapshot = metrics.snapshot();
+        List<SerialMetricDescription> res = new ArrayList<>();
+        res.add(new SerialMetricDescription("rx_bytes", "RX bytes", String.valueOf(snapshot.getRxBytes())));
+        res.add(new SerialMetricDescription("rx_rate", "RX bytes/s", format("%.1f", snapshot.getRxBytesPerSecond())));
+        res.add(new SerialMetricDescription("rx_events", "RX serial events", String.valueOf(snapshot.getRxEvents())));
+        res.add(new SerialMetricDescription("tx_bytes", "TX bytes", String.valueOf(snapshot.getTxBytes())));
+        res.add(new SerialMetricDescription("tx_rate", "TX bytes/s", format("%.1f", snapshot.getTxBytesPerSecond())));
+        res.add(new SerialMetricDescription("tx_frames", "TX frames", String.valueOf(snapshot.getTxFrames())));
+        res.add(new SerialMetricDescription("tx_frame_rate", "TX frames/s", format("%.1f", snapshot.getTxFramesPerSecond())));
+        res.add(new SerialMetricDescription("tx_writes", "TX port writes", String.valueOf(snapshot.getTxWrites())));
+        res.add(new SerialMetricDescription("tx_errors", "TX errors", String.valueOf(snapshot.getTxErrors())));
+        res.add(new SerialMetricDescription("overruns", "RX overruns",
+                format("%d (%d bytes dropped)", snapshot.getOverruns(), snapshot.getOverrunBytes())));
+        res.add(new SerialMetricDescription("read_latency", "Event->read latency", snapshot.getReadLatencyHistogram()));
+        res.add(new SerialMetricDescription("avg_read_gap", "Avg event->read gap µs",
+                String.valueOf(snapshot.getAvgEventToReadGapMicros())));
+        res.add(new SerialMetricDescription("max_read_gap", "Max event->read gap µs",
+                String.valueOf(snapshot.getMaxEventToReadGapMicros())));
+        return res;
+    }
+
+    @Override
+    public Class<SerialMetricDescription> getEntityClass() {
+        return SerialMetricDescription.class;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class SerialMetricDescription implements HasEntityIdentifier {
+
+        private String entityID;
+
+        @UIField(order = 1)
+        private String name;
+
+        @UIField(order = 2)
+        private String value;
+    }
+}
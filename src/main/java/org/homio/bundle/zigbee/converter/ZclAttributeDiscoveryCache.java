@@ -0,0 +1,105 @@
+package org.homio.bundle.zigbee.converter;
+
+import com.zsmartsystems.zigbee.ZigBeeEndpoint;
+import com.zsmartsystems.zigbee.zcl.ZclCluster;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Shares result of attribute discovery of a cluster between all converters that check/initialize same (node, endpoint, cluster).
+ * <p>
+ * Without it every converter targeting i.e. THERMOSTAT cluster sends own discovery request and waits full discovery timeout if sleepy
+ * device doesn't answer. Callers that hit in-flight discovery wait only until deadline of caller that started it, so not answering
+ * device costs one timeout per initialisation pass. Successful result is reused until TTL expires or node initialisation pass starts
+ * again, failed discovery is dropped as soon as it is seen, so next caller sends new request. Owned by coordinator and cleared on
+ * its dispose.
+ */
+public final class ZclAttributeDiscoveryCache {
+
+  /**
+   * Max time to reuse discovery result. Longer than worst case initialisation pass
+   */
+  private static final long TTL = TimeUnit.MINUTES.toMillis(10);
+
+  /**
+   * Keyed by cluster instance, so entries are dropped together with clusters of removed/updated endpoints. Guarded by itself
+   */
+  private final Map<ZclCluster, DiscoveryEntry> discoveries = new WeakHashMap<>();
+
+  /**
+   * Same as {@link ZclCluster#discoverAttributes(boolean)} with rediscover=false, but sends only one request per cluster
+   *
+   * @param timeout max time in seconds to wait for discovery started by this call
+   * @return true if attributes have been discovered, false if discovery failed or not completed before deadline
+   */
+  public boolean discoverAttributes(ZclCluster cluster, int timeout) throws InterruptedException {
+    DiscoveryEntry entry;
+    synchronized (discoveries) {
+      entry = discoveries.get(cluster);
+      long now = System.currentTimeMillis();
+      if (entry == null || now - entry.created > TTL || entry.isFailed()) {
+        entry = new DiscoveryEntry(cluster.discoverAttributes(false), now, now + TimeUnit.SECONDS.toMillis(timeout));
+        discoveries.put(cluster, entry);
+      }
+    }
+    try {
+      if (Boolean.TRUE.equals(entry.future.get(Math.max(0, entry.deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS))) {
+        return true;
+      }
+    } catch (TimeoutException ex) {
+      // keep pending discovery, late result may still be reused
+      return false;
+    } catch (InterruptedException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      // failed or cancelled
+    }
+    synchronized (discoveries) {
+      discoveries.remove(cluster, entry);
+    }
+    return false;
+  }
+
+  /**
+   * Drop cached results of all endpoint clusters. Called when new initialisation pass of node starts
+   */
+  public void invalidate(ZigBeeEndpoint endpoint) {
+    synchronized (discoveries) {
+      for (Integer clusterId : endpoint.getInputClusterIds()) {
+        discoveries.remove(endpoint.getInputCluster(clusterId));
+      }
+      for (Integer clusterId : endpoint.getOutputClusterIds()) {
+        discoveries.remove(endpoint.getOutputCluster(clusterId));
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (discoveries) {
+      discoveries.clear();
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class DiscoveryEntry {
+
+    private final Future<Boolean> future;
+    private final long created;
+    private final long deadline;
+
+    private boolean isFailed() {
+      if (!future.isDone()) {
+        return false;
+      }
+      try {
+        return !Boolean.TRUE.equals(future.get());
+      } catch (Exception ex) {
+        return true;
+      }
+    }
+  }
+}
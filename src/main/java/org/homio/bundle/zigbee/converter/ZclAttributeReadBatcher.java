@@ -0,0 +1,206 @@
+package org.homio.bundle.zigbee.converter;
+
+import com.zsmartsystems.zigbee.CommandResult;
+import com.zsmartsystems.zigbee.zcl.ZclAttribute;
+import com.zsmartsystems.zigbee.zcl.ZclCluster;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects attribute reads of same cluster issued within short window and sends them as one ZCL Read Attributes command.
+ * <p>
+ * Values are delivered by the library into {@link ZclAttribute} (and attribute listeners) when response arrives, so callers either wait
+ * for the batch and take attribute last value ({@link #readValue(ZclCluster, int, long)}) or just fire request
+ * ({@link #requestRead(ZclCluster, int)}) and get value via listener.
+ * <p>
+ * Batcher threads exist only while at least one coordinator holds batcher ({@link #acquire()}/{@link #release()}). Reads requested while
+ * no coordinator is running fail immediately.
+ */
+public final class ZclAttributeReadBatcher {
+
+  /**
+   * Time in milliseconds to wait for other reads of same cluster before sending request
+   */
+  private static final long BATCH_WINDOW = 50;
+
+  /**
+   * Max attributes in one request to fit into single ZCL frame
+   */
+  private static final int MAX_BATCH_ATTRIBUTES = 8;
+
+  /**
+   * Max concurrent Read Attributes requests. Every request blocks sender thread until device answers or transaction times out
+   */
+  private static final int SENDER_THREADS = 4;
+
+  /**
+   * Max time in milliseconds to wait for batch response. Longer than library transaction timeout with retries
+   */
+  private static final long READ_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+  // guards batches, executors and holders
+  private static final Map<ZclCluster, ReadBatch> PENDING = new HashMap<>();
+  private static int holders;
+  private static @Nullable ScheduledExecutorService scheduler;
+  private static @Nullable ExecutorService sender;
+
+  private ZclAttributeReadBatcher() {
+  }
+
+  /**
+   * Called by coordinator on start. Creates batcher threads if not created yet
+   */
+  public static void acquire() {
+    synchronized (PENDING) {
+      if (holders++ == 0) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("zigbee-read-batch"));
+        sender = Executors.newFixedThreadPool(SENDER_THREADS, threadFactory("zigbee-read"));
+      }
+    }
+  }
+
+  /**
+   * Called by coordinator on stop. Shuts batcher threads down and fails pending reads when last coordinator stopped
+   */
+  public static void release() {
+    synchronized (PENDING) {
+      if (holders == 0 || --holders > 0) {
+        return;
+      }
+      scheduler.shutdownNow();
+      sender.shutdownNow();
+      scheduler = null;
+      sender = null;
+      for (ReadBatch batch : PENDING.values()) {
+        batch.result.completeExceptionally(new RejectedExecutionException("ZigBee coordinator stopped"));
+      }
+      PENDING.clear();
+    }
+  }
+
+  /**
+   * Queue read of attribute without waiting for result
+   *
+   * @return future completed when response of batch containing this attribute received
+   */
+  public static CompletableFuture<CommandResult> requestRead(ZclCluster cluster, int attributeId) {
+    synchronized (PENDING) {
+      if (scheduler == null) {
+        return CompletableFuture.failedFuture(new RejectedExecutionException("ZigBee coordinator not running"));
+      }
+      ReadBatch batch = PENDING.get(cluster);
+      if (batch == null) {
+        ReadBatch newBatch = new ReadBatch(cluster);
+        PENDING.put(cluster, newBatch);
+        scheduler.schedule(() -> flush(newBatch), BATCH_WINDOW, TimeUnit.MILLISECONDS);
+        batch = newBatch;
+      }
+      batch.attributeIds.add(attributeId);
+      if (batch.attributeIds.size() >= MAX_BATCH_ATTRIBUTES) {
+        flush(batch);
+      }
+      return batch.result;
+    }
+  }
+
+  /**
+   * Batched analogue of {@link ZclAttribute#readValue(long)}
+   *
+   * @param refreshPeriod max age of cached attribute value in milliseconds to return it without reading
+   * @return attribute value or null if device not responded or doesn't support attribute
+   */
+  public static @Nullable Object readValue(ZclCluster cluster, int attributeId, long refreshPeriod) {
+    return readValues(cluster, refreshPeriod, attributeId).get(attributeId);
+  }
+
+  /**
+   * Read several attributes of cluster with one request
+   *
+   * @return attribute values by attribute id. Value is null if device not responded or doesn't support attribute
+   */
+  public static Map<Integer, Object> readValues(ZclCluster cluster, long refreshPeriod, int... attributeIds) {
+    Map<Integer, Object> values = new HashMap<>();
+    long requestTime = System.currentTimeMillis();
+    // attributes may be split between several batches
+    Set<CompletableFuture<CommandResult>> results = new LinkedHashSet<>();
+    for (int attributeId : attributeIds) {
+      ZclAttribute attribute = cluster.getAttribute(attributeId);
+      if (attribute != null && attribute.isLastValueCurrent(refreshPeriod)) {
+        values.put(attributeId, attribute.getLastValue());
+      } else if (attribute != null) {
+        results.add(requestRead(cluster, attributeId));
+      }
+    }
+    if (results.isEmpty()) {
+      return values;
+    }
+    try {
+      CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(READ_TIMEOUT, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return values;
+    } catch (ExecutionException | TimeoutException ex) {
+      return values;
+    }
+    for (int attributeId : attributeIds) {
+      ZclAttribute attribute = cluster.getAttribute(attributeId);
+      Calendar lastReportTime = attribute == null ? null : attribute.getLastReportTime();
+      if (!values.containsKey(attributeId) && lastReportTime != null && lastReportTime.getTimeInMillis() >= requestTime) {
+        values.put(attributeId, attribute.getLastValue());
+      }
+    }
+    return values;
+  }
+
+  private static void flush(ReadBatch batch) {
+    synchronized (PENDING) {
+      if (PENDING.get(batch.cluster) != batch) {
+        return; // already sent or batcher released
+      }
+      PENDING.remove(batch.cluster);
+      sender.execute(() -> {
+        try {
+          batch.result.complete(batch.cluster.readAttributes(new ArrayList<>(batch.attributeIds)).get(READ_TIMEOUT, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException ex) {
+          batch.result.completeExceptionally(ex);
+          Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+          batch.result.completeExceptionally(ex);
+        }
+      });
+    }
+  }
+
+  private static ThreadFactory threadFactory(String name) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @RequiredArgsConstructor
+  private static class ReadBatch {
+
+    private final ZclCluster cluster;
+    private final Set<Integer> attributeIds = new LinkedHashSet<>();
+    private final CompletableFuture<CommandResult> result = new CompletableFuture<>();
+  }
+}
@@ -0,0 +1,203 @@
+package org.homio.bundle.zigbee.converter;
+
+import com.zsmartsystems.zigbee.CommandResult;
+import com.zsmartsystems.zigbee.IeeeAddress;
+import com.zsmartsystems.zigbee.ZigBeeStatus;
+import com.zsmartsystems.zigbee.zcl.ZclAttribute;
+import com.zsmartsystems.zigbee.zcl.ZclCluster;
+import com.zsmartsystems.zigbee.zcl.ZclStatus;
+import com.zsmartsystems.zigbee.zcl.clusters.general.ConfigureReportingCommand;
+import com.zsmartsystems.zigbee.zcl.clusters.general.ConfigureReportingResponse;
+import com.zsmartsystems.zigbee.zcl.field.AttributeReportingConfigurationRecord;
+import com.zsmartsystems.zigbee.zcl.field.AttributeStatusRecord;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.util.CommonUtils;
+
+/**
+ * Collects binding and reporting requests of all converters of device and executes them together:
+ * <ul>
+ *   <li>cluster is bound once regardless of number of converters that use it</li>
+ *   <li>reporting records of same cluster are merged into Configure Reporting commands with up to {@link #MAX_RECORDS} records</li>
+ *   <li>clusters are processed in parallel with limited concurrency</li>
+ * </ul>
+ * Results are delivered to converters by callbacks: bind result to every requester of cluster bind, reporting status to every requester
+ * of attribute reporting. Reporting of cluster is configured only if cluster binding (when requested) succeeded, otherwise reporting
+ * requesters receive {@link ZclStatus#FAILURE}.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class ZclBindingPlanner {
+
+  /**
+   * Max reporting records in one Configure Reporting command to fit into single ZCL frame
+   */
+  private static final int MAX_RECORDS = 5;
+
+  private final String entityID;
+  private final Map<ZclCluster, ClusterPlan> plans = new LinkedHashMap<>();
+
+  public synchronized void bind(ZclCluster cluster, Consumer<CommandResult> callback) {
+    plans.computeIfAbsent(cluster, ClusterPlan::new).bindCallbacks.add(callback);
+  }
+
+  /**
+   * @param callback receives reporting status of attribute. {@link ZclStatus#FAILURE} if device not responded
+   */
+  public synchronized void report(ZclCluster cluster, int attributeId, int minInterval, int maxInterval, Object reportableChange,
+      Consumer<ZclStatus> callback) {
+    plans.computeIfAbsent(cluster, ClusterPlan::new).reports.add(new Report(attributeId, minInterval, maxInterval, reportableChange, callback));
+  }
+
+  public synchronized boolean isEmpty() {
+    return plans.isEmpty();
+  }
+
+  /**
+   * Execute all collected requests on shared executor with at most maxInFlight clusters of this device at once. Blocks until all
+   * clusters processed
+   */
+  public void execute(ExecutorService executor, IeeeAddress localAddress, int localEndpoint, int maxInFlight,
+      Consumer<String> progressMessage) throws InterruptedException {
+    List<ClusterPlan> clusterPlans;
+    synchronized (this) {
+      clusterPlans = new ArrayList<>(plans.values());
+      plans.clear();
+    }
+    if (clusterPlans.isEmpty()) {
+      return;
+    }
+    Consumer<String> syncProgressMessage = message -> {
+      synchronized (progressMessage) {
+        progressMessage.accept(message);
+      }
+    };
+    CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<Void>> futures = new ArrayList<>(clusterPlans.size());
+    Iterator<ClusterPlan> iterator = clusterPlans.iterator();
+    try {
+      for (int completed = 0; completed < clusterPlans.size(); completed++) {
+        while (iterator.hasNext() && futures.size() - completed < Math.max(1, maxInFlight)) {
+          ClusterPlan plan = iterator.next();
+          futures.add(completionService.submit(() -> {
+            plan.execute(localAddress, localEndpoint, syncProgressMessage);
+            return null;
+          }));
+        }
+        completionService.take();
+      }
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  @RequiredArgsConstructor
+  private class ClusterPlan {
+
+    private final ZclCluster cluster;
+    private final List<Consumer<CommandResult>> bindCallbacks = new ArrayList<>();
+    private final List<Report> reports = new ArrayList<>();
+
+    private void execute(IeeeAddress localAddress, int localEndpoint, Consumer<String> progressMessage) {
+      if (!bindCallbacks.isEmpty()) {
+        progressMessage.accept("binding cluster " + cluster.getClusterName());
+        CommandResult bindResponse = sendBind(localAddress, localEndpoint);
+        bindCallbacks.forEach(callback -> callback.accept(bindResponse));
+        if (!bindResponse.isSuccess()) {
+          // reporting without binding is useless, converters have to fall back to polling
+          reports.forEach(report -> report.callback.accept(ZclStatus.FAILURE));
+          return;
+        }
+      }
+      for (int i = 0; i < reports.size(); i += MAX_RECORDS) {
+        List<Report> chunk = reports.subList(i, Math.min(reports.size(), i + MAX_RECORDS));
+        progressMessage.accept("set " + cluster.getClusterName() + " report of " + chunk.size() + " attributes");
+        Map<Integer, ZclStatus> statuses = sendReporting(chunk);
+        for (Report report : chunk) {
+          ZclStatus status = statuses.get(report.attributeId);
+          log.debug("[{}]: Reporting of {} attribute {}: {}", entityID, cluster.getClusterName(), report.attributeId, status);
+          report.callback.accept(status);
+        }
+      }
+    }
+
+    private CommandResult sendBind(IeeeAddress localAddress, int localEndpoint) {
+      try {
+        return cluster.bind(localAddress, localEndpoint).get();
+      } catch (Exception ex) {
+        log.warn("[{}]: Unable to bind cluster {}. Msg: {}", entityID, cluster.getClusterName(), CommonUtils.getErrorMessage(ex));
+        return new CommandResult(ZigBeeStatus.FAILURE, null);
+      }
+    }
+
+    /**
+     * @return status of every attribute of chunk
+     */
+    private Map<Integer, ZclStatus> sendReporting(List<Report> chunk) {
+      Map<Integer, ZclStatus> statuses = new HashMap<>();
+      List<AttributeReportingConfigurationRecord> records = new ArrayList<>();
+      for (Report report : chunk) {
+        ZclAttribute attribute = cluster.getAttribute(report.attributeId);
+        if (attribute == null) {
+          statuses.put(report.attributeId, ZclStatus.UNSUPPORTED_ATTRIBUTE);
+          continue;
+        }
+        AttributeReportingConfigurationRecord record = new AttributeReportingConfigurationRecord();
+        record.setDirection(0);
+        record.setAttributeIdentifier(report.attributeId);
+        record.setAttributeDataType(attribute.getDataType());
+        record.setMinimumReportingInterval(report.minInterval);
+        record.setMaximumReportingInterval(report.maxInterval);
+        record.setReportableChange(report.reportableChange);
+        record.setTimeoutPeriod(0);
+        records.add(record);
+      }
+      if (records.isEmpty()) {
+        return statuses;
+      }
+
+      ZclStatus defaultStatus = ZclStatus.FAILURE;
+      try {
+        CommandResult result = cluster.sendCommand(new ConfigureReportingCommand(records)).get();
+        if (result.isSuccess() && result.getResponse() instanceof ConfigureReportingResponse) {
+          // device returns records only for failed attributes, or single SUCCESS record if all succeeded
+          defaultStatus = ZclStatus.SUCCESS;
+          ConfigureReportingResponse response = (ConfigureReportingResponse) result.getResponse();
+          for (AttributeStatusRecord statusRecord : response.getRecords()) {
+            if (statusRecord.getStatus() != ZclStatus.SUCCESS) {
+              statuses.put(statusRecord.getAttributeIdentifier(), statusRecord.getStatus());
+            }
+          }
+        }
+      } catch (Exception ex) {
+        log.warn("[{}]: Unable to configure reporting of cluster {}. Msg: {}", entityID, cluster.getClusterName(),
+            CommonUtils.getErrorMessage(ex));
+      }
+      for (Report report : chunk) {
+        statuses.putIfAbsent(report.attributeId, defaultStatus);
+      }
+      return statuses;
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class Report {
+
+    private final int attributeId;
+    private final int minInterval;
+    private final int maxInterval;
+    private final Object reportableChange;
+    private final Consumer<ZclStatus> callback;
+  }
+}
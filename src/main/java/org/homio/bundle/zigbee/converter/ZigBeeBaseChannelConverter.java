@@ -8,10 +8,17 @@ import com.zsmartsystems.zigbee.ZigBeeEndpoint;
 import com.zsmartsystems.zigbee.ZigBeeProfileType;
 import com.zsmartsystems.zigbee.zcl.ZclAttribute;
 import com.zsmartsystems.zigbee.zcl.ZclCluster;
+import com.zsmartsystems.zigbee.zcl.ZclStatus;
 import com.zsmartsystems.zigbee.zdo.command.BindResponse;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import lombok.Getter;
@@ -61,6 +68,16 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
   @Setter @Nullable private ZigBeeConverter annotation;
   @Getter private ZigbeeEndpointService endpointService;
   @Getter @Nullable private String bindStatusMsg;
+  // binding and reporting configured on device by previous initialisation are still valid and must not be sent again
+  @Getter @Setter private boolean reuseBinding;
+  // timers scheduled on coordinator scheduler, cancelled on dispose
+  private final Set<ScheduledFuture<?>> timers = ConcurrentHashMap.newKeySet();
+  // device-wide planner set during device initialisation. Binding and reporting must be added to it instead of being sent directly
+  @Setter @Nullable protected ZclBindingPlanner bindingPlanner;
+  // discovery cache of coordinator for probe instances created before endpoint service exists
+  @Setter @Nullable private ZclAttributeDiscoveryCache attributeDiscoveryCache;
+  // result of last Configure Reporting by attribute name
+  private final Map<String, ZclStatus> reportingStatus = new ConcurrentSkipListMap<>();
 
   public Integer getPollingPeriod() {
     return configReporting == null ? pollingPeriod : configReporting.getPollingPeriod();
@@ -80,6 +97,26 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
     return endpointService.getEntity();
   }
 
+  /**
+   * Discover supported attributes of cluster once per node initialisation pass via coordinator discovery cache
+   *
+   * @return false if discovery failed or not completed within discovery timeout
+   */
+  public boolean discoverAttributes(ZclCluster cluster, EntityContext entityContext) {
+    ZclAttributeDiscoveryCache discoveryCache = attributeDiscoveryCache == null
+        ? endpointService.getZigBeeDeviceService().getCoordinatorService().getAttributeDiscoveryCache() : attributeDiscoveryCache;
+    try {
+      return discoveryCache.discoverAttributes(cluster, getDiscoveryTimeout(entityContext));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  protected boolean discoverAttributes(ZclCluster cluster) {
+    return discoverAttributes(cluster, endpointService.getEntityContext());
+  }
+
   protected <T> T getInputCluster(int clusterId) {
     return (T) endpoint.getInputCluster(clusterId);
   }
@@ -104,7 +141,43 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
    * Closes the converter and releases any resources.
    */
   public void disposeConverter() {
-    // Overridable if the converter has cleanup to perform
+    // Overridable if the converter has cleanup to perform. Overrides must call super to cancel timers
+    cancelTimers();
+  }
+
+  /**
+   * Run task once after delay on coordinator shared scheduler
+   *
+   * @param delay delay in milliseconds
+   */
+  protected ScheduledFuture<?> schedule(Runnable task, long delay) {
+    return trackTimer(getScheduler().schedule(task, delay, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Run task periodically on coordinator shared scheduler until cancelled
+   *
+   * @param period period in milliseconds
+   */
+  protected ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+    return trackTimer(getScheduler().scheduleAtFixedRate(task, initialDelay, period, TimeUnit.MILLISECONDS));
+  }
+
+  protected void cancelTimers() {
+    for (ScheduledFuture<?> timer : timers) {
+      timer.cancel(false);
+    }
+    timers.clear();
+  }
+
+  private ScheduledFuture<?> trackTimer(ScheduledFuture<?> timer) {
+    timers.removeIf(Future::isDone);
+    timers.add(timer);
+    return timer;
+  }
+
+  private ScheduledExecutorService getScheduler() {
+    return endpointService.getZigBeeDeviceService().getCoordinatorService().getConverterScheduler();
   }
 
   public Future<CommandResult> handleCommand(final ZigBeeCommand command) {
@@ -142,8 +215,7 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
     if (discoverAttribute) {
       try {
         progressMessage.accept("discovery attributes");
-        if (!cluster.discoverAttributes(false).get(getDiscoveryTimeout(entityContext), TimeUnit.SECONDS)
-            && !cluster.isAttributeSupported(attributeId)) {
+        if (!discoverAttributes(cluster, entityContext) && !cluster.isAttributeSupported(attributeId)) {
           log.debug("[{}]: Error discover attribute {}. {}", entityID, attributeId, endpoint);
           return false;
         }
@@ -154,9 +226,8 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
     }
 
     if (readAttribute) {
-      ZclAttribute zclAttribute = cluster.getAttribute(attributeId);
       progressMessage.accept("read attr");
-      Object value = zclAttribute.readValue(Long.MAX_VALUE);
+      Object value = ZclAttributeReadBatcher.readValue(cluster, attributeId, Long.MAX_VALUE);
       if (value == null) {
         log.debug(
             "[{}]: Exception reading attribute {} in cluster, {}", entityID, attributeId, endpoint);
@@ -178,7 +249,11 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
    * @param reportingSuccessMaxReportInterval the maximum reporting interval in case reporting is successfully configured
    */
   protected void handleReportingResponse(CommandResult reportResponse, int reportingFailedPollingInterval, int reportingSuccessMaxReportInterval) {
-    if (!reportResponse.isSuccess()) {
+    handleReportingResponse(reportResponse.isSuccess(), reportingFailedPollingInterval, reportingSuccessMaxReportInterval);
+  }
+
+  protected void handleReportingResponse(boolean success, int reportingFailedPollingInterval, int reportingSuccessMaxReportInterval) {
+    if (!success) {
       // we want the minimum of all pollingPeriods
       pollingPeriod = Math.min(pollingPeriod, reportingFailedPollingInterval);
     } else {
@@ -197,15 +272,7 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
     this.bindStatus = Status.ERROR;
     try {
       CommandResult commandResult = cluster.bind(endpointService.getLocalIpAddress(), endpointService.getLocalEndpointId()).get();
-      this.bindStatus = commandResult.isSuccess() ? Status.DONE : Status.OFFLINE;
-      if (this.bindStatus != Status.DONE) {
-        if (commandResult.getResponse() == null) {
-          this.bindStatusMsg = format("code: '%s'. '%s'", Integer.toHexString(commandResult.getStatusCode()).toUpperCase(), commandResult);
-        } else {
-          this.bindStatusMsg = format("code: '%s'. status: '%s'", Integer.toHexString(commandResult.getStatusCode()).toUpperCase(),
-              ((BindResponse) commandResult.getResponse()).getStatus().name());
-        }
-      }
+      updateBindStatus(commandResult);
       return commandResult;
     } catch (Exception ex) {
       this.bindStatusMsg = format("code: '-'. msg: '%s'", CommonUtils.getErrorMessage(ex));
@@ -213,6 +280,33 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
     }
   }
 
+  /**
+   * Update binding status from bind response. Used for both direct bind and bind executed by {@link ZclBindingPlanner}
+   */
+  protected void updateBindStatus(CommandResult commandResult) {
+    this.bindStatus = commandResult.isSuccess() ? Status.DONE : Status.OFFLINE;
+    if (this.bindStatus != Status.DONE) {
+      if (commandResult.getResponse() == null) {
+        this.bindStatusMsg = format("code: '%s'. '%s'", Integer.toHexString(commandResult.getStatusCode()).toUpperCase(), commandResult);
+      } else {
+        this.bindStatusMsg = format("code: '%s'. status: '%s'", Integer.toHexString(commandResult.getStatusCode()).toUpperCase(),
+            ((BindResponse) commandResult.getResponse()).getStatus().name());
+      }
+    }
+  }
+
+  protected void updateReportingStatus(ZclCluster cluster, int attributeId, ZclStatus status) {
+    ZclAttribute attribute = cluster.getAttribute(attributeId);
+    reportingStatus.put(attribute == null ? Integer.toHexString(attributeId) : attribute.getName(), status);
+  }
+
+  /**
+   * @return reporting configuration result per attribute or null if reporting wasn't configured
+   */
+  public @Nullable String getReportingStatus() {
+    return reportingStatus.isEmpty() ? null : reportingStatus.toString();
+  }
+
   protected void updateChannelState(State state) {
     log.debug("[{}]: Channel <{}> updated to <{}> for {}", entityID, getClass().getSimpleName(), state, endpoint);
     endpointService.updateValue(state);
@@ -249,6 +343,7 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
           configReporting.getReportingTimeMax(),
           setChange ? configReporting.getReportingChange() : null).get();
       handleReportingResponse(reportingResponse, configReporting.getPollingPeriod(), configReporting.getReportingTimeMax());
+      updateReportingStatus(serverCluster, attributeId, reportingResponse.isSuccess() ? ZclStatus.SUCCESS : ZclStatus.FAILURE);
     } catch (Exception e) {
       log.debug("[{}]: Exception setting reporting", entityID, e);
     }
@@ -262,8 +357,7 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
   }
 
   public <T> T readAttribute(ZclCluster zclCluster, int attributeID, T defaultValue) {
-    ZclAttribute divisorAttribute = zclCluster.getAttribute(attributeID);
-    Object value = divisorAttribute.readValue(Long.MAX_VALUE);
+    Object value = ZclAttributeReadBatcher.readValue(zclCluster, attributeID, Long.MAX_VALUE);
     return value == null ? defaultValue : (T) value;
   }
 
@@ -274,6 +368,13 @@ public abstract class ZigBeeBaseChannelConverter implements HasClusterDefinition
   public void assembleActions(UIInputBuilder uiInputBuilder) {
   }
 
+  /**
+   * @return true if every value of channel is separate event (button press, alarm transition) and must not be replaced by next value
+   */
+  public boolean isEventChannel() {
+    return false;
+  }
+
   public boolean tryBind() throws Exception {
 
     return false;
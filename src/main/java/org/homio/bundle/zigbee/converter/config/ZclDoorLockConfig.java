@@ -25,9 +25,9 @@ public class ZclDoorLockConfig {
   private boolean enableLocalProgramming;
   private boolean enableOneTouchLocking;
 
-  public ZclDoorLockConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, Logger log) {
+  public ZclDoorLockConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, boolean discovered, Logger log) {
     doorLockCluster = (ZclDoorLockCluster) cluster;
-    ZclLevelControlConfig.initCluster(doorLockCluster.discoverAttributes(false), log,
+    ZclLevelControlConfig.initCluster(discovered, log,
         doorLockCluster.getZigBeeAddress(), doorLockCluster.getClusterName());
 
     this.supportSoundVolume = doorLockCluster.isAttributeSupported(ZclDoorLockCluster.ATTR_SOUNDVOLUME);
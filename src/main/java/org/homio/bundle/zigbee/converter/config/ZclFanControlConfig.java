@@ -16,11 +16,11 @@ public class ZclFanControlConfig {
 
   private int fanModeSequence;
 
-  public ZclFanControlConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, Logger log) {
+  public ZclFanControlConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, boolean discovered, Logger log) {
     this.fanModeSequence = entity.getFanModeSequence();
 
     fanControlCluster = (ZclFanControlCluster) cluster;
-    ZclLevelControlConfig.initCluster(fanControlCluster.discoverAttributes(false), log,
+    ZclLevelControlConfig.initCluster(discovered, log,
         fanControlCluster.getZigBeeAddress(), fanControlCluster.getClusterName());
 
     this.supportFanModeSequence = fanControlCluster.isAttributeSupported(ZclFanControlCluster.ATTR_FANMODESEQUENCE);
@@ -10,7 +10,6 @@ import static org.homio.bundle.zigbee.converter.config.ZclOnOffSwitchConfig.conf
 import com.zsmartsystems.zigbee.ZigBeeEndpointAddress;
 import com.zsmartsystems.zigbee.zcl.ZclCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclLevelControlCluster;
-import java.util.concurrent.Future;
 import lombok.Getter;
 import org.apache.logging.log4j.Logger;
 import org.homio.bundle.zigbee.model.ZigBeeEndpointEntity;
@@ -32,7 +31,7 @@ public class ZclLevelControlConfig {
   private int onLevel;
   private int defaultMoveRate;
 
-  public ZclLevelControlConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, Logger log) {
+  public ZclLevelControlConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, boolean discovered, Logger log) {
     this.onOffTransitionTime = entity.getOffWaitTime();
     this.onTransitionTime = entity.getOnTransitionTime();
     this.offTransitionTime = entity.getOffTransitionTime();
@@ -40,7 +39,7 @@ public class ZclLevelControlConfig {
     this.defaultMoveRate = entity.getDefaultMoveRate();
 
     levelControlCluster = (ZclLevelControlCluster) cluster;
-    initCluster(levelControlCluster.discoverAttributes(false), log,
+    initCluster(discovered, log,
         levelControlCluster.getZigBeeAddress(), levelControlCluster.getClusterName());
 
     supportOnOffTransitionTime = levelControlCluster.isAttributeSupported(ATTR_ONOFFTRANSITIONTIME);
@@ -50,15 +49,10 @@ public class ZclLevelControlConfig {
     supportDefaultMoveRate = levelControlCluster.isAttributeSupported(ATTR_DEFAULTMOVERATE);
   }
 
-  static void initCluster(Future<Boolean> booleanFuture, Logger log, ZigBeeEndpointAddress zigBeeAddress, String clusterName) {
-    try {
-      Boolean result = booleanFuture.get();
-      if (!result) {
-        log.debug("[{}]: Unable to get supported attributes for {}.", zigBeeAddress,
-            clusterName);
-      }
-    } catch (Exception e) {
-      log.error("[{}]: Error getting supported attributes for {}. ", zigBeeAddress, clusterName, e);
+  static void initCluster(boolean discovered, Logger log, ZigBeeEndpointAddress zigBeeAddress, String clusterName) {
+    if (!discovered) {
+      log.debug("[{}]: Unable to get supported attributes for {}.", zigBeeAddress,
+          clusterName);
     }
   }
 
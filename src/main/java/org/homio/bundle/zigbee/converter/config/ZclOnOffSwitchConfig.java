@@ -23,13 +23,13 @@ public class ZclOnOffSwitchConfig {
   private int onTime;
   private int startupOnOff;
 
-  public ZclOnOffSwitchConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, Logger log) {
+  public ZclOnOffSwitchConfig(ZigBeeEndpointEntity entity, ZclCluster cluster, boolean discovered, Logger log) {
     this.offWaitTime = entity.getOffWaitTime();
     this.onTime = entity.getOnTime();
     this.startupOnOff = entity.getStartupOnOff() ? 1 : 0;
 
     onoffCluster = (ZclOnOffCluster) cluster;
-    ZclLevelControlConfig.initCluster(onoffCluster.discoverAttributes(false), log,
+    ZclLevelControlConfig.initCluster(discovered, log,
         onoffCluster.getZigBeeAddress(), onoffCluster.getClusterName());
 
     this.supportOffWaitTime = onoffCluster.isAttributeSupported(ZclOnOffCluster.ATTR_OFFWAITTIME);
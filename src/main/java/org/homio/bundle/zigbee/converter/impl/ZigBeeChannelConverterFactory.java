@@ -3,44 +3,85 @@ package org.homio.bundle.zigbee.converter.impl;
 import static com.zsmartsystems.zigbee.zcl.clusters.ZclIasZoneCluster.ATTR_ZONETYPE;
 
 import com.zsmartsystems.zigbee.ZigBeeEndpoint;
-import com.zsmartsystems.zigbee.zcl.ZclAttribute;
 import com.zsmartsystems.zigbee.zcl.ZclCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclIasZoneCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.iaszone.ZoneTypeEnum;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.zigbee.converter.ZclAttributeDiscoveryCache;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.zigbee.converter.impl.ias.ZigBeeConverterIasLowBattery;
 import org.homio.bundle.zigbee.converter.impl.ias.ZoneTypeClusterEnum;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.util.CommonUtils;
 import org.homio.bundle.zigbee.converter.impl.ias.ZigBeeConverterIas;
 import org.homio.bundle.zigbee.converter.impl.ias.ZigBeeConverterIasTamper;
+import org.homio.bundle.zigbee.setting.ZigBeeDiscoveryMaxInFlightSetting;
 
 
 @Log4j2
 @Component
-public final class ZigBeeChannelConverterFactory {
+public final class ZigBeeChannelConverterFactory implements DisposableBean {
 
   /**
    * List of all @ZigBeeConverter
    */
   private final List<ConverterContext> allConverters;
 
+  /**
+   * All @ZigBeeConverter grouped by cluster they probe
+   */
+  private final Map<Integer, List<ConverterContext>> convertersByCluster;
+
+  /**
+   * Converter constructors by converter name, including IAS converters that are selected by zone type
+   */
+  private final Map<String, Supplier<ZigBeeBaseChannelConverter>> converterByName = new HashMap<>();
+
+  /**
+   * Max threads running cluster probes of all devices. Probes of one device are limited by in-flight setting as well
+   */
+  private static final int PROBE_THREADS = 8;
+
+  /**
+   * Runs cluster probes. Idle threads are released after a minute, pool is shut down with the bean
+   */
+  private final ThreadPoolExecutor probeExecutor;
+
+  /**
+   * Hash of all converter names. Changes when addon update adds/removes converters, so device fingerprints become invalid
+   */
+  @Getter
+  private final int converterSetHash;
+
   @Getter
   private final Set<Integer> allClientClusterIds = new HashSet<>();
   @Getter
@@ -50,6 +91,8 @@ public final class ZigBeeChannelConverterFactory {
     List<Class<? extends ZigBeeBaseChannelConverter>> converters = entityContext.getClassesWithAnnotation(ZigBeeConverter.class);
 
     allConverters = converters.stream().map(ConverterContext::new).collect(Collectors.toList());
+    convertersByCluster = allConverters.stream().collect(Collectors.groupingBy(c -> c.zigBeeConverter.clientCluster(),
+        LinkedHashMap::new, Collectors.toList()));
     allServerClusterIds = allConverters.stream().flatMapToInt(c -> IntStream.of(c.zigBeeConverter.serverClusters()))
                                        .boxed().collect(Collectors.toSet());
     for (ConverterContext context : allConverters) {
@@ -58,67 +101,191 @@ public final class ZigBeeChannelConverterFactory {
         allClientClusterIds.add(additionalCluster);
       }
     }
+
+    for (ConverterContext context : allConverters) {
+      converterByName.put(context.zigBeeConverter.name(), () -> {
+        ZigBeeBaseChannelConverter converter = CommonUtils.newInstance(context.converterClass);
+        converter.setAnnotation(context.zigBeeConverter);
+        return converter;
+      });
+    }
+    Set<Class<? extends ZigBeeConverterIas>> iasConverterClasses =
+        new HashSet<>(List.of(ZigBeeConverterIasLowBattery.class, ZigBeeConverterIasTamper.class));
+    for (ZoneTypeClusterEnum zoneTypeCluster : ZoneTypeClusterEnum.values()) {
+      iasConverterClasses.addAll(List.of(zoneTypeCluster.getIasConverterClasses()));
+    }
+    for (Class<? extends ZigBeeConverterIas> iasConverterClass : iasConverterClasses) {
+      converterByName.put(CommonUtils.newInstance(iasConverterClass).getName(), () -> CommonUtils.newInstance(iasConverterClass));
+    }
+    converterSetHash = new ArrayList<>(new TreeSet<>(converterByName.keySet())).hashCode();
+
+    AtomicInteger threadCount = new AtomicInteger();
+    probeExecutor = new ThreadPoolExecutor(PROBE_THREADS, PROBE_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "zigbee-probe-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    probeExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void destroy() {
+    probeExecutor.shutdownNow();
   }
 
   public int getConverterCount() {
     return allConverters.size();
   }
 
-  public Collection<ZigBeeBaseChannelConverter> findAllMatchConverters(ZigBeeEndpoint endpoint, String entityID,
-      EntityContext entityContext, Consumer<String> unitDone, Consumer<String> progressMessage) {
-    Map<String, ZigBeeBaseChannelConverter> fitEndpoints = createZigBeeChannels(context -> {
-      try {
-        unitDone.accept("Check '" + context.zigBeeConverter.name() + "' converter");
-        return context.converter.acceptEndpoint(endpoint, entityID, entityContext, message -> {
-          progressMessage.accept("ep[" + endpoint.getEndpointId() + "]" + context.zigBeeConverter.name() + ":" + message);
-        });
-      } catch (Exception ex) {
-        log.error("[{}]: Unable to evaluate acceptEndpoint for converter: {}. Endpoint: {}. Error: {}", entityID,
-            context.converter.getClass().getSimpleName(), endpoint, CommonUtils.getErrorMessage(ex));
-        return false;
+  /**
+   * Create converter by name without probing endpoint. Used to re-attach converters of already known endpoints
+   *
+   * @return new converter or null if no converter with such name
+   */
+  public @Nullable ZigBeeBaseChannelConverter createConverter(String name) {
+    Supplier<ZigBeeBaseChannelConverter> supplier = converterByName.get(name);
+    return supplier == null ? null : supplier.get();
+  }
+
+  /**
+   * Find converters for all endpoints of device. Converters are grouped by cluster they probe, every (endpoint, cluster) group is
+   * evaluated in parallel with other groups while converters inside group are checked one by one. Number of concurrently running groups
+   * is limited by {@link ZigBeeDiscoveryMaxInFlightSetting}.
+   *
+   * @return matched converters by endpoint id
+   */
+  public Map<Integer, Collection<ZigBeeBaseChannelConverter>> findAllMatchConverters(Collection<ZigBeeEndpoint> endpoints,
+      String entityID, EntityContext entityContext, ZclAttributeDiscoveryCache discoveryCache, Consumer<String> unitDone,
+      Consumer<String> progressMessage) throws InterruptedException {
+    Semaphore inFlight = new Semaphore(entityContext.setting().getValue(ZigBeeDiscoveryMaxInFlightSetting.class));
+    // progress consumers are not thread-safe
+    Consumer<String> syncUnitDone = message -> {
+      synchronized (inFlight) {
+        unitDone.accept(message);
+      }
+    };
+    Consumer<String> syncProgressMessage = message -> {
+      synchronized (inFlight) {
+        progressMessage.accept(message);
       }
-    });
+    };
+
+    Map<ZigBeeEndpoint, List<Future<Map<String, ZigBeeBaseChannelConverter>>>> probes = new LinkedHashMap<>();
+    try {
+      for (ZigBeeEndpoint endpoint : endpoints) {
+        List<Future<Map<String, ZigBeeBaseChannelConverter>>> endpointProbes = new ArrayList<>();
+        for (List<ConverterContext> group : convertersByCluster.values()) {
+          endpointProbes.add(submitProbe(inFlight, () ->
+              createZigBeeChannels(endpoint, group, entityID, entityContext, discoveryCache, syncUnitDone, syncProgressMessage)));
+        }
+        // IAS goes last to override generic converters with same name
+        endpointProbes.add(submitProbe(inFlight, () -> {
+          syncUnitDone.accept("Check 'IAS' cluster");
+          return createIasClusters(endpoint, entityID, syncProgressMessage);
+        }));
+        probes.put(endpoint, endpointProbes);
+      }
+
+      Map<Integer, Collection<ZigBeeBaseChannelConverter>> result = new LinkedHashMap<>();
+      for (Map.Entry<ZigBeeEndpoint, List<Future<Map<String, ZigBeeBaseChannelConverter>>>> entry : probes.entrySet()) {
+        Map<String, ZigBeeBaseChannelConverter> fitEndpoints = new HashMap<>();
+        for (Future<Map<String, ZigBeeBaseChannelConverter>> probe : entry.getValue()) {
+          fitEndpoints.putAll(getProbeResult(probe, entry.getKey(), entityID));
+        }
+
+        // Remove ON/OFF if we support LEVEL
+        if (fitEndpoints.containsKey("switch_level")) {
+          fitEndpoints.remove("switch_onoff");
+        }
 
-    // Remove ON/OFF if we support LEVEL
-    if (fitEndpoints.containsKey("switch_level")) {
-      fitEndpoints.remove("switch_onoff");
+        // Remove LEVEL if we support COLOR
+        if (fitEndpoints.containsKey("color_color")) {
+          fitEndpoints.remove("switch_onoff");
+        }
+        result.put(entry.getKey().getEndpointId(), fitEndpoints.values());
+      }
+      return result;
+    } finally {
+      // stop outstanding probes if matching was interrupted
+      probes.values().forEach(endpointProbes -> endpointProbes.forEach(probe -> probe.cancel(true)));
     }
+  }
 
-    // Remove LEVEL if we support COLOR
-    if (fitEndpoints.containsKey("color_color")) {
-      fitEndpoints.remove("switch_onoff");
+  private Future<Map<String, ZigBeeBaseChannelConverter>> submitProbe(Semaphore inFlight,
+      Callable<Map<String, ZigBeeBaseChannelConverter>> probe) throws InterruptedException {
+    inFlight.acquire();
+    try {
+      return probeExecutor.submit(() -> {
+        try {
+          return probe.call();
+        } finally {
+          inFlight.release();
+        }
+      });
+    } catch (RuntimeException ex) {
+      inFlight.release();
+      throw ex;
     }
-    unitDone.accept("Check 'IAS' cluster");
-    createIasClusters(endpoint, entityID, fitEndpoints, progressMessage);
+  }
 
-    return fitEndpoints.values();
+  private Map<String, ZigBeeBaseChannelConverter> getProbeResult(Future<Map<String, ZigBeeBaseChannelConverter>> probe,
+      ZigBeeEndpoint endpoint, String entityID) throws InterruptedException {
+    try {
+      return probe.get();
+    } catch (ExecutionException ex) {
+      log.error("[{}]: Unable to match converters for endpoint: {}. Error: {}", entityID, endpoint,
+          CommonUtils.getErrorMessage(ex.getCause()));
+      return Map.of();
+    }
   }
 
-  private Map<String, ZigBeeBaseChannelConverter> createZigBeeChannels(Predicate<ConverterContext> acceptConverter) {
+  private Map<String, ZigBeeBaseChannelConverter> createZigBeeChannels(ZigBeeEndpoint endpoint, List<ConverterContext> converters,
+      String entityID, EntityContext entityContext, ZclAttributeDiscoveryCache discoveryCache, Consumer<String> unitDone,
+      Consumer<String> progressMessage) {
     Map<String, ZigBeeBaseChannelConverter> fitEndpoints = new HashMap<>();
-    for (ConverterContext context : allConverters) {
-      if (acceptConverter.test(context)) {
-        ZigBeeBaseChannelConverter newConverter = CommonUtils.newInstance(context.converter.getClass());
+    for (ConverterContext context : converters) {
+      if (Thread.currentThread().isInterrupted()) {
+        break;
+      }
+      unitDone.accept("Check '" + context.zigBeeConverter.name() + "' converter");
+      if (acceptEndpoint(context, endpoint, entityID, entityContext, discoveryCache, progressMessage)) {
+        ZigBeeBaseChannelConverter newConverter = CommonUtils.newInstance(context.converterClass);
         newConverter.setAnnotation(context.zigBeeConverter);
         fitEndpoints.put(context.zigBeeConverter.name(), newConverter);
       }
     }
-
     return fitEndpoints;
   }
 
-  private void createIasClusters(ZigBeeEndpoint endpoint, String entityID, Map<String, ZigBeeBaseChannelConverter> converters,
+  private boolean acceptEndpoint(ConverterContext context, ZigBeeEndpoint endpoint, String entityID, EntityContext entityContext,
+      ZclAttributeDiscoveryCache discoveryCache, Consumer<String> progressMessage) {
+    try {
+      // own instance per check as converters of different endpoints are checked concurrently
+      ZigBeeBaseChannelConverter converter = CommonUtils.newInstance(context.converterClass);
+      converter.setAttributeDiscoveryCache(discoveryCache);
+      return converter.acceptEndpoint(endpoint, entityID, entityContext, message -> {
+        progressMessage.accept("ep[" + endpoint.getEndpointId() + "]" + context.zigBeeConverter.name() + ":" + message);
+      });
+    } catch (Exception ex) {
+      log.error("[{}]: Unable to evaluate acceptEndpoint for converter: {}. Endpoint: {}. Error: {}", entityID,
+          context.converterClass.getSimpleName(), endpoint, CommonUtils.getErrorMessage(ex));
+      return false;
+    }
+  }
+
+  private Map<String, ZigBeeBaseChannelConverter> createIasClusters(ZigBeeEndpoint endpoint, String entityID,
       Consumer<String> unitDone) {
+    Map<String, ZigBeeBaseChannelConverter> converters = new HashMap<>();
     ZclCluster cluster = endpoint.getInputCluster(ZclIasZoneCluster.CLUSTER_ID);
     if (cluster != null) {
       addConverters(converters, new ZigBeeConverterIasLowBattery());
       addConverters(converters, new ZigBeeConverterIasTamper());
 
       Integer zoneTypeId = null;
-      ZclAttribute zclAttribute = cluster.getAttribute(ATTR_ZONETYPE);
       for (int retry = 0; retry < 5; retry++) {
         unitDone.accept("Reading IAS 'ZoneType' attribute " + (retry + 1) + "/5");
-        zoneTypeId = (Integer) zclAttribute.readValue(Long.MAX_VALUE);
+        zoneTypeId = (Integer) ZclAttributeReadBatcher.readValue(cluster, ATTR_ZONETYPE, Long.MAX_VALUE);
         if (zoneTypeId != null) {
           break;
         }
@@ -133,6 +300,7 @@ public final class ZigBeeChannelConverterFactory {
         }
       }
     }
+    return converters;
   }
 
   private void addConverters(Map<String, ZigBeeBaseChannelConverter> converters, ZigBeeConverterIas converter) {
@@ -142,15 +310,15 @@ public final class ZigBeeChannelConverterFactory {
   private static class ConverterContext {
 
     private final @NotNull ZigBeeConverter zigBeeConverter;
-    private final @NotNull ZigBeeBaseChannelConverter converter;
+    private final @NotNull Class<? extends ZigBeeBaseChannelConverter> converterClass;
 
     public ConverterContext(Class<? extends ZigBeeBaseChannelConverter> converterClass) {
       zigBeeConverter = Optional.ofNullable(AnnotationUtils.getAnnotation(converterClass, ZigBeeConverter.class)).orElseThrow(
           () -> new IllegalStateException("Unable to get ZigBeeConverter annotation from type: " + converterClass.getSimpleName()));
-      converter = CommonUtils.newInstance(converterClass);
-      if (converter == null) {
+      if (CommonUtils.newInstance(converterClass) == null) {
         throw new IllegalStateException("Unable to create instance of type: " + converterClass.getSimpleName());
       }
+      this.converterClass = converterClass;
     }
   }
 }
@@ -11,10 +11,12 @@ import com.zsmartsystems.zigbee.zcl.clusters.ZclPressureMeasurementCluster;
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Map;
 import java.util.function.Consumer;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.EntityContextVar.VariableType;
 import org.homio.bundle.api.state.DecimalType;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
 
 
 /**
@@ -85,8 +87,9 @@ public class ZigBeeConverterAtmosphericPressure extends ZigBeeInputBaseConverter
   }
 
   private void determineEnhancedScale() {
-    if (zclCluster.getAttribute(ATTR_SCALEDVALUE).readValue(Long.MAX_VALUE) != null) {
-      enhancedScale = (Integer) zclCluster.getAttribute(ATTR_SCALE).readValue(Long.MAX_VALUE);
+    Map<Integer, Object> values = ZclAttributeReadBatcher.readValues(zclCluster, Long.MAX_VALUE, ATTR_SCALEDVALUE, ATTR_SCALE);
+    if (values.get(ATTR_SCALEDVALUE) != null) {
+      enhancedScale = (Integer) values.get(ATTR_SCALE);
       if (enhancedScale != null) {
         enhancedScale *= -1;
         attribute = zclCluster.getAttribute(ATTR_SCALEDVALUE);
@@ -7,7 +7,10 @@ import com.zsmartsystems.zigbee.zcl.clusters.ZclColorControlCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.colorcontrol.ColorCapabilitiesEnum;
 import com.zsmartsystems.zigbee.zcl.clusters.colorcontrol.ColorModeEnum;
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
+import java.util.Map;
 import java.util.function.Consumer;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
+import org.homio.bundle.zigbee.converter.ZclBindingPlanner;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.EntityContextVar.VariableType;
@@ -44,6 +47,13 @@ public class ZigBeeConverterColorTemperature extends ZigBeeInputBaseConverter<Zc
     handleReportingResponse(reportingResponse);
   }
 
+  @Override
+  protected void planBindingReport(ZclBindingPlanner planner) {
+    super.planBindingReport(planner);
+    planReport(planner, ZclColorControlCluster.ATTR_COLORMODE, 1, REPORTING_PERIOD_DEFAULT_MAX, 1,
+        REPORTING_PERIOD_DEFAULT_MAX, REPORTING_PERIOD_DEFAULT_MAX);
+  }
+
   @Override
   protected void afterClusterInitialized() {
     determineMinMaxTemperature(clusterColorControl);
@@ -51,6 +61,7 @@ public class ZigBeeConverterColorTemperature extends ZigBeeInputBaseConverter<Zc
 
   @Override
   public void disposeConverter() {
+    super.disposeConverter();
     clusterColorControl.removeAttributeListener(this);
   }
 
@@ -75,10 +86,10 @@ public class ZigBeeConverterColorTemperature extends ZigBeeInputBaseConverter<Zc
       return false;
     }
 
-    Integer capabilities = (Integer) clusterColorControl.getAttribute(ZclColorControlCluster.ATTR_COLORCAPABILITIES)
-                                                        .readValue(Long.MAX_VALUE);
-    if (capabilities == null && clusterColorControl.getAttribute(ZclColorControlCluster.ATTR_COLORTEMPERATURE)
-                                                   .readValue(Long.MAX_VALUE) == null) {
+    Map<Integer, Object> values = ZclAttributeReadBatcher.readValues(clusterColorControl, Long.MAX_VALUE,
+        ZclColorControlCluster.ATTR_COLORCAPABILITIES, ZclColorControlCluster.ATTR_COLORTEMPERATURE);
+    Integer capabilities = (Integer) values.get(ZclColorControlCluster.ATTR_COLORCAPABILITIES);
+    if (capabilities == null && values.get(ZclColorControlCluster.ATTR_COLORTEMPERATURE) == null) {
       log.debug("[{}]: Color control color temperature attribute returned null for {}", entityID, endpoint);
       return false;
     }
@@ -20,7 +20,7 @@ public class ZigBeeConverterDoorLock extends ZigBeeInputBaseConverter<ZclDoorLoc
 
     @Override
     protected void afterClusterInitialized() {
-        this.configDoorLock = new ZclDoorLockConfig(getEntity(), zclCluster, log);
+        this.configDoorLock = new ZclDoorLockConfig(getEntity(), zclCluster, discoverAttributes(zclCluster), log);
     }
 
   /*@Override
@@ -26,7 +26,7 @@ public class ZigBeeConverterFanControl extends ZigBeeInputBaseConverter<ZclFanCo
 
   @Override
   protected void afterClusterInitialized() {
-    configFanControl = new ZclFanControlConfig(getEntity(), zclCluster, log);
+    configFanControl = new ZclFanControlConfig(getEntity(), zclCluster, discoverAttributes(zclCluster), log);
   }
 
   @Override
@@ -6,13 +6,17 @@ import com.zsmartsystems.zigbee.zcl.ZclAttribute;
 import com.zsmartsystems.zigbee.zcl.ZclAttributeListener;
 import com.zsmartsystems.zigbee.zcl.ZclCluster;
 import com.zsmartsystems.zigbee.zcl.ZclCommandListener;
+import com.zsmartsystems.zigbee.zcl.ZclStatus;
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.SneakyThrows;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
+import org.homio.bundle.zigbee.converter.ZclBindingPlanner;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +31,7 @@ import org.homio.bundle.zigbee.util.ClusterAttributeConfiguration;
 import org.homio.bundle.zigbee.util.ClusterConfiguration;
 import org.homio.bundle.zigbee.util.ClusterConfigurations;
 import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
 import org.homio.bundle.api.ui.field.ProgressBar;
 
 
@@ -80,7 +85,16 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
     }
 
     protected void initializeBinding(Consumer<String> progressMessage) {
-        if (bindStatus != Status.DONE) {
+        if (bindStatus != Status.DONE && isReuseBinding()) {
+            log.debug("[{}]: Reuse binding and reporting of {}", entityID, endpoint);
+            bindStatus = Status.DONE;
+            if (configReporting != null) {
+                minimalReportingPeriod = Math.min(minimalReportingPeriod, configReporting.getReportingTimeMax());
+            }
+        }
+        if (bindStatus != Status.DONE && bindingPlanner != null) {
+            planBindingReport(bindingPlanner);
+        } else if (bindStatus != Status.DONE) {
             try {
                 initializeBindingReport(progressMessage);
             } catch (Exception ex) {
@@ -107,6 +121,7 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
 
     @Override
     public void disposeConverter() {
+        super.disposeConverter();
         log.debug("[{}]: Closing device input cluster {}. {}", entityID, zclClusterType, endpoint);
         zclCluster.removeAttributeListener(this);
 
@@ -121,7 +136,7 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
             if (progressMessage != null) {
                 progressMessage.accept("read attr: '" + attribute.getName() + "'");
             }
-            attribute.readValue(0);
+            ZclAttributeReadBatcher.requestRead(zclCluster, attribute.getId());
         }
     }
 
@@ -142,9 +157,12 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
     }
 
     protected void updateValue(Object val, ZclAttribute attribute) {
-        String unit = getEndpointService().getEndpointDefinition().map(EndpointDefinition::getUnit).orElse(null);
+        Optional<EndpointDefinition> endpointDefinition = getEndpointService().getEndpointDefinition();
+        String unit = endpointDefinition.map(EndpointDefinition::getUnit).orElse(null);
         if (val instanceof Number) {
-            updateChannelState(new DecimalType((Number) val).setUnit(unit));
+            Double scale = endpointDefinition.map(EndpointDefinition::getScale).orElse(null);
+            Number value = scale == null ? (Number) val : ((Number) val).doubleValue() * scale;
+            updateChannelState(new DecimalType(value).setUnit(unit));
         } else if (val instanceof Boolean) {
             updateChannelState(State.of(val));
         } else {
@@ -177,11 +195,12 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
             ZigBeeEndpointEntity endpointEntity = getEndpointService().getEntity();
             progressMessage.accept("set attr: '" + attribute.getName() + "' report");
             CommandResult reportingResponse = attribute.setReporting(
-                configuration.getReportMinInterval(endpointEntity),
-                configuration.getReportMaxInterval(endpointEntity),
-                configuration.getReportChange(endpointEntity)).get();
+                getReportMinInterval(endpointEntity),
+                getReportMaxInterval(endpointEntity),
+                getReportChange(endpointEntity)).get();
 
             handleReportingResponse(reportingResponse, configuration.getFailedPollingInterval(), configuration.getSuccessMaxReportInterval(endpointEntity));
+            updateReportingStatus(zclCluster, attributeId, reportingResponse.isSuccess() ? ZclStatus.SUCCESS : ZclStatus.FAILURE);
         } else {
             if (configuration.getBindFailedPollingPeriod() != null) {
                 pollingPeriod = configuration.getBindFailedPollingPeriod();
@@ -190,6 +209,65 @@ public abstract class ZigBeeInputBaseConverter<Cluster extends ZclCluster> exten
         }
     }
 
+    /**
+     * Same as {@link #initializeBindingReport(Consumer)} but adds bind and reporting to device planner, which merges them with other
+     * converters of same cluster
+     */
+    protected void planBindingReport(ZclBindingPlanner planner) {
+        if (attributeId == null) {
+            throw new IllegalStateException("Cluster with null attributeId must override planBindingReport(...) method");
+        }
+        planner.bind(zclCluster, bindResponse -> {
+            updateBindStatus(bindResponse);
+            if (!bindResponse.isSuccess()) {
+                if (configuration.getBindFailedPollingPeriod() != null) {
+                    pollingPeriod = configuration.getBindFailedPollingPeriod();
+                }
+                log.warn("[{}]: Could not bind '{}'. Response code: {}", entityID, zclClusterType.name(), bindResponse.getStatusCode());
+            }
+        });
+        ZigBeeEndpointEntity endpointEntity = getEndpointService().getEntity();
+        planReport(planner, attributeId,
+            getReportMinInterval(endpointEntity),
+            getReportMaxInterval(endpointEntity),
+            getReportChange(endpointEntity),
+            configuration.getFailedPollingInterval(), configuration.getSuccessMaxReportInterval(endpointEntity));
+    }
+
+    /**
+     * Reporting of device definition replaces cluster configuration defaults. If reporting is configurable by user, definition
+     * reporting is applied to endpoint entity on creation instead
+     */
+    private @Nullable ReportSpec getDefinitionReport() {
+        if (configuration.isReportConfigurable()) {
+            return null;
+        }
+        return getEndpointService().getEndpointDefinition().map(EndpointDefinition::getReport).orElse(null);
+    }
+
+    private int getReportMinInterval(ZigBeeEndpointEntity endpointEntity) {
+        ReportSpec report = getDefinitionReport();
+        return report != null && report.getMin() != null ? report.getMin() : configuration.getReportMinInterval(endpointEntity);
+    }
+
+    private int getReportMaxInterval(ZigBeeEndpointEntity endpointEntity) {
+        ReportSpec report = getDefinitionReport();
+        return report != null && report.getMax() != null ? report.getMax() : configuration.getReportMaxInterval(endpointEntity);
+    }
+
+    private Object getReportChange(ZigBeeEndpointEntity endpointEntity) {
+        ReportSpec report = getDefinitionReport();
+        return report != null && report.getChange() != null ? report.getChange() : configuration.getReportChange(endpointEntity);
+    }
+
+    protected void planReport(ZclBindingPlanner planner, int attributeId, int minInterval, int maxInterval, Object reportableChange,
+        int reportingFailedPollingInterval, int reportingSuccessMaxReportInterval) {
+        planner.report(zclCluster, attributeId, minInterval, maxInterval, reportableChange, status -> {
+            updateReportingStatus(zclCluster, attributeId, status);
+            handleReportingResponse(status == ZclStatus.SUCCESS, reportingFailedPollingInterval, reportingSuccessMaxReportInterval);
+        });
+    }
+
     @SneakyThrows
     @Override
     public List<AttributeDescription> readAllAttributes(ProgressBar progressBar) {
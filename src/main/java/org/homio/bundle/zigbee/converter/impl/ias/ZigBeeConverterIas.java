@@ -58,6 +58,11 @@ public abstract class ZigBeeConverterIas extends ZigBeeInputBaseConverter<ZclIas
     return "#34B8CF";
   }
 
+  @Override
+  public boolean isEventChannel() {
+    return true;
+  }
+
   // must be called programmatically
   public boolean acceptEndpoint(ZigBeeEndpoint endpoint, String entityID, EntityContext entityContext, Consumer<String> progressMessage) {
     throw new ProhibitedExecution();
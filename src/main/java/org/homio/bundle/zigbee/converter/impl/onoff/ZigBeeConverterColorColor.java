@@ -25,14 +25,13 @@ import com.zsmartsystems.zigbee.zcl.clusters.onoff.OffCommand;
 import com.zsmartsystems.zigbee.zcl.clusters.onoff.OnCommand;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.zigbee.converter.impl.ZigBeeConverter;
 import org.jetbrains.annotations.Nullable;
@@ -62,7 +61,7 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
     private ZclOnOffCluster clusterOnOff;
 
     private boolean delayedColorChange = false; // Wait for brightness transition before changing color
-    private ScheduledExecutorService colorUpdateScheduler;
+    private boolean initialized;
     private ScheduledFuture<?> colorUpdateTimer = null;
     private boolean supportsHue = false;
     private int lastHue = -1;
@@ -87,8 +86,8 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
 
     @Override
     public void initialize(Consumer<String> progressMessage) {
-        if (colorUpdateScheduler == null) {
-            colorUpdateScheduler = Executors.newSingleThreadScheduledExecutor();
+        if (!initialized) {
+            initialized = true;
 
             ZclColorControlCluster serverClusterColorControl = getInputCluster(ZclColorControlCluster.CLUSTER_ID);
             if (serverClusterColorControl == null) {
@@ -179,14 +178,14 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
         if (clusterLevelControl == null) {
             log.warn("[{}]: Device does not support level control {}", entityID, endpoint);
         } else {
-            configLevelControl = new ZclLevelControlConfig(getEntity(), clusterLevelControl, log);
+            configLevelControl = new ZclLevelControlConfig(getEntity(), clusterLevelControl, discoverAttributes(clusterLevelControl), log);
         }
 
         clusterOnOff = getInputCluster(ZclOnOffCluster.CLUSTER_ID);
         if (clusterOnOff == null) {
             log.debug("[{}]: Device does not support on/off control {}", entityID, endpoint);
         } else {
-            configOnOff = new ZclOnOffSwitchConfig(getEntity(), clusterOnOff, log);
+            configOnOff = new ZclOnOffSwitchConfig(getEntity(), clusterOnOff, discoverAttributes(clusterOnOff), log);
         }
 
         this.supportConfigColorControl = true;
@@ -207,7 +206,7 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
             colorUpdateTimer.cancel(true);
             colorUpdateTimer = null;
         }
-        colorUpdateScheduler.shutdownNow();
+        super.disposeConverter();
 
         clusterColorControl.removeAttributeListener(this);
 
@@ -363,9 +362,10 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
         }
 
         // Device is not supporting attribute reporting - instead, just read the attributes
-        Integer capabilities = (Integer) clusterColorControl.getAttribute(ATTR_COLORCAPABILITIES).readValue(Long.MAX_VALUE);
-        if (capabilities == null && clusterColorControl.getAttribute(ATTR_CURRENTX).readValue(Long.MAX_VALUE) == null
-            && clusterColorControl.getAttribute(ATTR_CURRENTHUE).readValue(Long.MAX_VALUE) == null) {
+        Map<Integer, Object> values = ZclAttributeReadBatcher.readValues(clusterColorControl, Long.MAX_VALUE,
+            ATTR_COLORCAPABILITIES, ATTR_CURRENTX, ATTR_CURRENTHUE);
+        Integer capabilities = (Integer) values.get(ATTR_COLORCAPABILITIES);
+        if (capabilities == null && values.get(ATTR_CURRENTX) == null && values.get(ATTR_CURRENTHUE) == null) {
             log.debug("[{}]: Color control XY and Hue returned null for {}", entityID, endpoint);
             return false;
         }
@@ -502,7 +502,7 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
                         updateColorXY();
                     } else {
                         // Wait some time and update anyway if only one attribute in each pair is updated
-                        colorUpdateTimer = colorUpdateScheduler.schedule(() -> {
+                        colorUpdateTimer = schedule(() -> {
                             synchronized (colorUpdateSync) {
                                 try {
                                     if ((hueChanged || saturationChanged) && lastHue >= 0.0f
@@ -517,7 +517,7 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
 
                                 colorUpdateTimer = null;
                             }
-                        }, 500, TimeUnit.MILLISECONDS);
+                        }, 500);
                     }
                 }
             } catch (Exception e) {
@@ -535,8 +535,7 @@ public class ZigBeeConverterColorColor extends ZigBeeBaseChannelConverter implem
 
         // Discover whether the device supports HUE/SAT or XY color set of commands
         try {
-            int discoveryTimeout = getDiscoveryTimeout(getEndpointService().getEntityContext());
-            if (!serverClusterColorControl.discoverAttributes(false).get(discoveryTimeout, TimeUnit.SECONDS)) {
+            if (!discoverAttributes(serverClusterColorControl)) {
                 log.warn("[{}]: Cannot determine whether device supports RGB color. Assuming it supports HUE/SAT {}", entityID, endpoint);
                 supportsHue = true;
             } else if (serverClusterColorControl.getSupportedAttributes().contains(ATTR_CURRENTHUE)) {
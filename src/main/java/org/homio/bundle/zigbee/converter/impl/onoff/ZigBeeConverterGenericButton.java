@@ -1,9 +1,7 @@
 package org.homio.bundle.zigbee.converter.impl.onoff;
 
-import static java.lang.Integer.parseInt;
 import static java.lang.Integer.toHexString;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.zsmartsystems.zigbee.CommandResult;
 import com.zsmartsystems.zigbee.ZigBeeEndpoint;
 import com.zsmartsystems.zigbee.zcl.ZclAttribute;
@@ -26,11 +24,11 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.zigbee.converter.impl.ZigBeeConverter;
-import org.jetbrains.annotations.Nullable;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.EntityContextVar.VariableType;
 import org.homio.bundle.api.state.ButtonType;
 import org.homio.bundle.api.state.ButtonType.ButtonPressType;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ButtonEventSpec;
 import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
 
 /**
@@ -50,26 +48,16 @@ public class ZigBeeConverterGenericButton extends ZigBeeBaseChannelConverter
     private final Set<ZclCluster> clientClusters = new HashSet<>();
     private final Set<ZclCluster> serverClusters = new HashSet<>();
 
-    private static String getParameterName(String parameterType, ButtonType.ButtonPressType buttonPressType) {
-        return String.format("zigbee_%s_%s", buttonPressType, parameterType);
-    }
-
-    private static int parseId(String id) throws NumberFormatException {
-        if (id.startsWith("0x")) {
-            return parseInt(id.substring(2), 16);
-        } else {
-            return parseInt(id);
-        }
-    }
-
     @Override
     public void initialize(Consumer<String> progressMessage) {
-        for (ButtonPressType buttonPressType : ButtonPressType.values()) {
-            EventSpec eventSpec = parseEventSpec(getEndpointService().getEndpointDefinition().map(EndpointDefinition::getMetadata)
-                                                                     .orElse(null), buttonPressType);
-            if (eventSpec != null) {
-                handledEvents.put(buttonPressType, eventSpec);
-            }
+        // event specs are compiled and validated on device definition load
+        Map<ButtonPressType, ButtonEventSpec> buttonEvents =
+            getEndpointService().getEndpointDefinition().map(EndpointDefinition::getButtonEvents).orElse(Map.of());
+        for (Entry<ButtonPressType, ButtonEventSpec> entry : buttonEvents.entrySet()) {
+            ButtonEventSpec spec = entry.getValue();
+            handledEvents.put(entry.getKey(), spec.isCommand()
+                ? new CommandSpec(spec.getClusterId(), spec.getCommandId(), spec.getParameterName(), spec.getParameterValue())
+                : new AttributeReportSpec(spec.getClusterId(), spec.getAttributeId(), spec.getAttributeValue()));
         }
 
         if (handledEvents.isEmpty()) {
@@ -90,6 +78,7 @@ public class ZigBeeConverterGenericButton extends ZigBeeBaseChannelConverter
 
     @Override
     public void disposeConverter() {
+        super.disposeConverter();
         for (ZclCluster clientCluster : clientClusters) {
             log.debug("[{}]: Closing client cluster {} for {}", entityID, clientCluster.getClusterId(), endpoint);
             clientCluster.removeCommandListener(this);
@@ -101,6 +90,11 @@ public class ZigBeeConverterGenericButton extends ZigBeeBaseChannelConverter
         }
     }
 
+    @Override
+    public boolean isEventChannel() {
+        return true;
+    }
+
     @Override
     public boolean acceptEndpoint(ZigBeeEndpoint endpoint, String entityID, EntityContext entityContext, Consumer<String> progressMessage) {
         // This converter is used only for zigbeeRequireEndpoints specified in static thing types, and cannot be used to construct
@@ -147,75 +141,6 @@ public class ZigBeeConverterGenericButton extends ZigBeeBaseChannelConverter
         return null;
     }
 
-    private EventSpec parseEventSpec(@Nullable JsonNode metadata, ButtonType.ButtonPressType pressType) {
-        if (metadata == null) {
-            return null;
-        }
-        String clusterProperty = metadata.get(getParameterName(CLUSTER, pressType)).asText();
-
-        if (clusterProperty == null) {
-            return null;
-        }
-
-        int clusterId;
-
-        try {
-            clusterId = parseId(clusterProperty);
-        } catch (NumberFormatException e) {
-            log.warn("[{}]: Could not parse cluster property {} for {}", entityID, clusterProperty, endpoint);
-            return null;
-        }
-
-        boolean hasCommand = metadata.has(getParameterName(COMMAND, pressType));
-        boolean hasAttribute = metadata.has(getParameterName(ATTRIBUTE_ID, pressType));
-
-        if (hasCommand && hasAttribute) {
-            log.warn("[{}]: Only one of command or attribute can be used {}", entityID, endpoint);
-            return null;
-        }
-
-        if (hasCommand) {
-            return parseCommandSpec(clusterId, metadata, pressType);
-        } else {
-            return parseAttributeReportSpec(clusterId, metadata, pressType);
-        }
-    }
-
-    private AttributeReportSpec parseAttributeReportSpec(int clusterId, JsonNode metadata, ButtonType.ButtonPressType pressType) {
-        int attributeId = metadata.path(getParameterName(COMMAND, pressType)).asInt(-1);
-        if (attributeId == -1) {
-            log.warn("[{}]: Missing attribute id {}", entityID, endpoint);
-            return null;
-        }
-
-        String attributeValue = metadata.path(getParameterName(ATTRIBUTE_VALUE, pressType)).asText();
-        if (attributeValue == null) {
-            log.warn("[{}]: No attribute value for attribute {} specified {}", entityID, attributeId, endpoint);
-            return null;
-        }
-
-        return new AttributeReportSpec(clusterId, attributeId, attributeValue);
-    }
-
-    private CommandSpec parseCommandSpec(int clusterId, JsonNode metadata, ButtonType.ButtonPressType pressType) {
-        int commandId = metadata.path(getParameterName(COMMAND, pressType)).asInt(-1);
-        if (commandId == -1) {
-            log.warn("[{}]: Missing command {}", entityID, endpoint);
-            return null;
-        }
-
-        String commandParameterName = metadata.path(getParameterName(PARAM_NAME, pressType)).asText();
-        String commandParameterValue = metadata.path(getParameterName(PARAM_VALUE, pressType)).asText();
-
-        if ((commandParameterName != null && commandParameterValue == null)
-            || (commandParameterName == null && commandParameterValue != null)) {
-            log.warn("[{}]: When specifying a command parameter, both name and value must be specified {}", entityID, endpoint);
-            return null;
-        }
-
-        return new CommandSpec(clusterId, commandId, commandParameterName, commandParameterValue);
-    }
-
     private abstract class EventSpec {
 
         private final int clusterId;
@@ -348,10 +273,4 @@ public class ZigBeeConverterGenericButton extends ZigBeeBaseChannelConverter
                 cluster -> cluster.addCommandListener(ZigBeeConverterGenericButton.this));
         }
     }
-    private static final String CLUSTER = "cluster_id";
-    private static final String COMMAND = "command_id";
-    private static final String PARAM_NAME = "parameter_name";
-    private static final String PARAM_VALUE = "parameter_value";
-    private static final String ATTRIBUTE_ID = "attribute_id";
-    private static final String ATTRIBUTE_VALUE = "attribute_value";
 }
@@ -23,12 +23,10 @@ import com.zsmartsystems.zigbee.zcl.clusters.onoff.OnCommand;
 import com.zsmartsystems.zigbee.zcl.clusters.onoff.OnWithTimedOffCommand;
 import com.zsmartsystems.zigbee.zcl.clusters.onoff.ToggleCommand;
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.zigbee.converter.impl.ZigBeeConverter;
 import org.jetbrains.annotations.Nullable;
@@ -63,7 +61,7 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
     private ZclAttribute attributeOnOff;
     private ZclAttribute attributeLevel;
     private DecimalType lastLevel = DecimalType.HUNDRED;
-    private ScheduledExecutorService updateScheduler;
+    private boolean initialized;
     private ScheduledFuture<?> updateTimer = null;
 
     //  private Command lastCommand;
@@ -175,8 +173,8 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
 
     @Override
     public synchronized void initialize(Consumer<String> progressMessage) {
-        if (updateScheduler == null) {
-            updateScheduler = Executors.newSingleThreadScheduledExecutor();
+        if (!initialized) {
+            initialized = true;
 
             if (initializeDeviceServer()) {
                 log.debug("[{}]: Level control device initialized as server {}", entityID, this.endpoint);
@@ -214,8 +212,9 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
 
         // Create a configuration handler and get the available options
         configReporting = new ZclReportingConfig(getEntity());
-        configLevelControl = new ZclLevelControlConfig(getEntity(), clusterLevelControlServer, log);
-        configOnOff = new ZclOnOffSwitchConfig(getEntity(), clusterOnOffServer, log);
+        configLevelControl = new ZclLevelControlConfig(getEntity(), clusterLevelControlServer,
+            discoverAttributes(clusterLevelControlServer), log);
+        configOnOff = new ZclOnOffSwitchConfig(getEntity(), clusterOnOffServer, discoverAttributes(clusterOnOffServer), log);
 
         return true;
     }
@@ -262,7 +261,7 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
         }
 
         stopTransitionTimer();
-        updateScheduler.shutdownNow();
+        super.disposeConverter();
     }
 
     /**
@@ -308,13 +307,13 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
             if (progressMessage != null) {
                 progressMessage.accept("read attr: '" + attributeOnOff.getName() + "'");
             }
-            attributeOnOff.readValue(0);
+            ZclAttributeReadBatcher.requestRead(clusterOnOffServer, attributeOnOff.getId());
         }
         if (attributeLevel != null) {
             if (progressMessage != null) {
                 progressMessage.accept("read attr: '" + attributeLevel.getName() + "'");
             }
-            attributeLevel.readValue(0);
+            ZclAttributeReadBatcher.requestRead(clusterLevelControlServer, attributeLevel.getId());
         }
     }
 
@@ -563,7 +562,7 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
         final double start = lastLevel.doubleValue();
         final double step = (finalState - lastLevel.doubleValue()) / steps;
 
-        updateTimer = updateScheduler.scheduleAtFixedRate(new Runnable() {
+        updateTimer = scheduleAtFixedRate(new Runnable() {
             private int count = 0;
             private double state = start;
 
@@ -586,7 +585,7 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
                     updateTimer = null;
                 }
             }
-        }, 0, STATE_UPDATE_RATE, TimeUnit.MILLISECONDS);
+        }, 0, STATE_UPDATE_RATE);
     }
 
     /**
@@ -597,13 +596,13 @@ public class ZigBeeConverterSwitchLevel extends ZigBeeBaseChannelConverter
     private void startOffTimer(int delay) {
         stopTransitionTimer();
 
-        updateTimer = updateScheduler.schedule(() -> {
+        updateTimer = schedule(() -> {
             log.debug("[{}]: OnOff auto OFF timer expired {}", entityID, endpoint);
             lastLevel = DecimalType.ZERO;
             currentOnOffState.set(false);
             updateChannelState(OnOffType.OFF);
             updateTimer = null;
-        }, delay, TimeUnit.MILLISECONDS);
+        }, delay);
     }
 
     /**
@@ -16,11 +16,8 @@ import com.zsmartsystems.zigbee.zcl.clusters.onoff.OnWithTimedOffCommand;
 import com.zsmartsystems.zigbee.zcl.clusters.onoff.ToggleCommand;
 import com.zsmartsystems.zigbee.zcl.clusters.onoff.ZclOnOffCommand;
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import lombok.SneakyThrows;
@@ -46,7 +43,6 @@ public class ZigBeeConverterSwitchOnOff extends ZigBeeInputBaseConverter<ZclOnOf
 
     private final AtomicBoolean currentOnOffState = new AtomicBoolean(true);
     private ZclOnOffCluster clusterOnOffClient;
-    private ScheduledExecutorService updateScheduler;
     private ScheduledFuture<?> updateTimer = null;
 
     public ZigBeeConverterSwitchOnOff() {
@@ -56,11 +52,9 @@ public class ZigBeeConverterSwitchOnOff extends ZigBeeInputBaseConverter<ZclOnOf
     @Override
     public void initialize(Consumer<String> progressMessage) {
         if (zclCluster == null && clusterOnOffClient == null) {
-            updateScheduler = Executors.newSingleThreadScheduledExecutor();
-
             if (hasInputCluster(ZclOnOffCluster.CLUSTER_ID)) {
                 super.initialize(progressMessage);
-                configOnOff = new ZclOnOffSwitchConfig(getEntity(), zclCluster, log);
+                configOnOff = new ZclOnOffSwitchConfig(getEntity(), zclCluster, discoverAttributes(zclCluster), log);
             }
 
             clusterOnOffClient = getOutputCluster(ZclOnOffCluster.CLUSTER_ID);
@@ -89,7 +83,6 @@ public class ZigBeeConverterSwitchOnOff extends ZigBeeInputBaseConverter<ZclOnOf
         }
 
         stopOffTimer();
-        updateScheduler.shutdownNow();
     }
 
     @Override
@@ -193,11 +186,11 @@ public class ZigBeeConverterSwitchOnOff extends ZigBeeInputBaseConverter<ZclOnOf
     private void startOffTimer(int delay) {
         stopOffTimer();
 
-        updateTimer = updateScheduler.schedule(() -> {
+        updateTimer = schedule(() -> {
             log.debug("[{}]: OnOff auto OFF timer expired {}", entityID, endpoint);
             updateChannelState(OnOffType.OFF);
             updateTimer = null;
-        }, delay, TimeUnit.MILLISECONDS);
+        }, delay);
     }
 
     @Override
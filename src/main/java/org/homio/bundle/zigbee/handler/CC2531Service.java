@@ -7,6 +7,7 @@ import com.zsmartsystems.zigbee.transport.ZigBeeTransportTransmit;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclIasZoneCluster;
 import java.util.HashSet;
 import java.util.Set;
+import org.homio.bundle.zigbee.internal.SerialPortMetrics;
 import org.homio.bundle.zigbee.internal.ZigBeeSerialPort;
 import org.homio.bundle.zigbee.model.ZigbeeCoordinatorEntity;
 import org.homio.bundle.api.EntityContext;
@@ -17,6 +18,8 @@ import org.homio.bundle.zigbee.service.ZigBeeCoordinatorService;
 
 public class CC2531Service extends ZigBeeCoordinatorService {
 
+  private ZigBeeSerialPort serialPort;
+
   public CC2531Service(EntityContext entityContext, ZigbeeCoordinatorEntity entity) {
     super(entityContext, entity);
   }
@@ -34,8 +37,13 @@ public class CC2531Service extends ZigBeeCoordinatorService {
     startZigBee(dongle, transportConfig);
   }
 
+  @Override
+  public SerialPortMetrics getSerialPortMetrics() {
+    return serialPort == null ? null : serialPort.getMetrics();
+  }
+
   private ZigBeeTransportTransmit createDongle() {
-    ZigBeeSerialPort serialPort = new ZigBeeSerialPort(
+    serialPort = new ZigBeeSerialPort(
         "cc2531",
         entityContext,
         CommonUtils.getSerialPort(getEntity().getPort()),
@@ -48,7 +56,9 @@ public class CC2531Service extends ZigBeeCoordinatorService {
             getEntity().setSerialPort(port);
             entityContext.save(getEntity(), false);
           }
-        }));
+        }),
+        getEntity().getRxBufferSize());
+    serialPort.setCoalesceWrites(getEntity().isCoalesceTxFrames());
     return new ZigBeeDongleTiCc2531(serialPort);
   }
 
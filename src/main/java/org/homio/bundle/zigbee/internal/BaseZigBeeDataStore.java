@@ -0,0 +1,365 @@
+package org.homio.bundle.zigbee.internal;
+
+import static org.homio.bundle.api.util.CommonUtils.resolvePath;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.zsmartsystems.zigbee.IeeeAddress;
+import com.zsmartsystems.zigbee.ZigBeeNode;
+import com.zsmartsystems.zigbee.database.ZclAttributeDao;
+import com.zsmartsystems.zigbee.database.ZclClusterDao;
+import com.zsmartsystems.zigbee.database.ZigBeeEndpointDao;
+import com.zsmartsystems.zigbee.database.ZigBeeNetworkDataStore;
+import com.zsmartsystems.zigbee.database.ZigBeeNodeDao;
+import com.zsmartsystems.zigbee.zdo.field.BindingTable;
+import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.FrequencyBandType;
+import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.MacCapabilitiesType;
+import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.ServerCapabilitiesType;
+import com.zsmartsystems.zigbee.zdo.field.PowerDescriptor.PowerSourceType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.EntityContext;
+import org.homio.bundle.api.EntityContextBGP.ThreadContext;
+import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base class for network state stores. Holds network directory, XStream configuration and fallback restore from db.
+ * <p>
+ * Writes are queued (write-behind) for writeDelay milliseconds. Repeated writes of same node within this window are collapsed into
+ * one write of latest node state. Queue flushes on {@link #close()}.
+ * <p>
+ * When network manager asks for node list on startup, all nodes are loaded in parallel by few background jobs and handed out from memory
+ * by following sequential {@link #readNode(IeeeAddress)} calls. Created XStream instances must be configured once and reused, XStream is
+ * thread-safe after configuration.
+ */
+@Log4j2
+public abstract class BaseZigBeeDataStore implements ZigBeeNetworkDataStore {
+
+  protected final Path networkStateFilePath;
+  protected final EntityContext entityContext;
+  protected final String entityID;
+
+  /**
+   * Nodes waiting to be stored. Guarded by itself
+   */
+  private final Map<IeeeAddress, ZigBeeNodeDao> pendingWrites = new LinkedHashMap<>();
+  /**
+   * Guarded by pendingWrites. Not null from scheduling till end of flush, so writes queued during flush don't start second flush
+   */
+  private @Nullable ThreadContext<Void> flushJob;
+  /**
+   * Serializes storeNode/deleteNode calls, so older node state never overwrites newer one
+   */
+  private final Object flushLock = new Object();
+
+  /**
+   * Write-behind window in milliseconds. 0 - store nodes immediately
+   */
+  @Getter
+  private volatile int writeDelay;
+
+  /**
+   * Max number of threads to load nodes on startup
+   */
+  private static final int LOAD_THREADS = 4;
+
+  /**
+   * Nodes loaded in parallel by readNetworkNodes() and not yet requested by readNode()
+   */
+  private final Map<IeeeAddress, ZigBeeNodeDao> preloadedNodes = new ConcurrentHashMap<>();
+
+  /**
+   * Time in milliseconds of last readNetworkNodes() including loading of all nodes
+   */
+  @Getter
+  private volatile long loadTime = -1;
+  @Getter
+  private volatile int loadedNodes;
+
+  public BaseZigBeeDataStore(String networkId, EntityContext entityContext, String entityID) {
+    this(resolvePath("zigbee", networkId), entityContext, entityID);
+  }
+
+  protected BaseZigBeeDataStore(Path networkStateFilePath, EntityContext entityContext, String entityID) {
+    this.networkStateFilePath = networkStateFilePath;
+    this.entityContext = entityContext;
+    this.entityID = entityID;
+  }
+
+  /**
+   * List addresses of all nodes in store
+   */
+  protected abstract Set<IeeeAddress> listNodes();
+
+  /**
+   * Read node from store. May be called concurrently from multiple threads
+   */
+  protected abstract @Nullable ZigBeeNodeDao loadNode(IeeeAddress address);
+
+  /**
+   * Persist node into store
+   */
+  protected abstract void storeNode(ZigBeeNodeDao node);
+
+  /**
+   * Remove node from store
+   */
+  protected abstract void deleteNode(IeeeAddress address);
+
+  /**
+   * Release any opened resources. Store may be reopened by next read/write call
+   */
+  protected void release() {
+    // Overridable if store keeps opened files
+  }
+
+  @Override
+  public Set<IeeeAddress> readNetworkNodes() {
+    long startTime = System.currentTimeMillis();
+    Set<IeeeAddress> nodes = listNodes();
+    preloadNodes(nodes);
+    loadTime = System.currentTimeMillis() - startTime;
+    loadedNodes = nodes.size();
+    log.info("[{}]: Loaded {} network nodes in {}ms", entityID, loadedNodes, loadTime);
+    return nodes;
+  }
+
+  @Override
+  public ZigBeeNodeDao readNode(IeeeAddress address) {
+    synchronized (pendingWrites) {
+      ZigBeeNodeDao node = pendingWrites.get(address);
+      if (node != null) {
+        return node;
+      }
+    }
+    ZigBeeNodeDao node = preloadedNodes.remove(address);
+    return node == null ? loadNode(address) : node;
+  }
+
+  @Override
+  public void writeNode(ZigBeeNodeDao node) {
+    preloadedNodes.remove(node.getIeeeAddress());
+    if (writeDelay <= 0) {
+      synchronized (flushLock) {
+        storeNode(node);
+      }
+      return;
+    }
+    synchronized (pendingWrites) {
+      pendingWrites.put(node.getIeeeAddress(), node);
+      if (flushJob == null) {
+        scheduleFlush();
+      }
+    }
+  }
+
+  @Override
+  public void removeNode(IeeeAddress address) {
+    synchronized (pendingWrites) {
+      pendingWrites.remove(address);
+    }
+    preloadedNodes.remove(address);
+    synchronized (flushLock) {
+      deleteNode(address);
+    }
+  }
+
+  public void setWriteDelay(int writeDelay) {
+    this.writeDelay = writeDelay;
+    if (writeDelay <= 0) {
+      flush();
+    }
+  }
+
+  /**
+   * @return number of nodes waiting to be written
+   */
+  public int getPendingWrites() {
+    synchronized (pendingWrites) {
+      return pendingWrites.size();
+    }
+  }
+
+  /**
+   * Store all queued nodes
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      List<ZigBeeNodeDao> nodes;
+      synchronized (pendingWrites) {
+        nodes = new ArrayList<>(pendingWrites.values());
+      }
+      if (!nodes.isEmpty()) {
+        log.debug("[{}]: Flush {} queued network nodes", entityID, nodes.size());
+        for (ZigBeeNodeDao node : nodes) {
+          storeNode(node);
+          // node stays readable from queue till stored. Keep it queued if it has been written again meanwhile
+          synchronized (pendingWrites) {
+            pendingWrites.remove(node.getIeeeAddress(), node);
+          }
+        }
+      }
+    }
+  }
+
+  private void runFlushJob() {
+    flush();
+    synchronized (pendingWrites) {
+      flushJob = null;
+      // nodes queued while flush has been storing previous ones
+      if (!pendingWrites.isEmpty() && writeDelay > 0) {
+        scheduleFlush();
+      }
+    }
+  }
+
+  private void scheduleFlush() {
+    flushJob = entityContext.bgp().builder("zigbee-store-flush-" + entityID)
+                            .delay(Duration.ofMillis(writeDelay))
+                            .execute(this::runFlushJob);
+  }
+
+  /**
+   * Load nodes in calling thread and up to LOAD_THREADS - 1 one-shot background jobs. Calling thread waits only for nodes which have
+   * been taken by jobs, so job that never started doesn't block startup
+   */
+  private void preloadNodes(Set<IeeeAddress> nodes) {
+    preloadedNodes.clear();
+    if (nodes.size() < 2) {
+      return;
+    }
+    Queue<IeeeAddress> queue = new ArrayDeque<>(nodes);
+    AtomicInteger loading = new AtomicInteger();
+    List<ThreadContext<Void>> jobs = new ArrayList<>();
+    int helpers = entityContext == null ? 0 : Math.min(nodes.size(), LOAD_THREADS) - 1;
+    for (int i = 0; i < helpers; i++) {
+      jobs.add(entityContext.bgp().builder("zigbee-store-load-" + entityID + "-" + i)
+                            .execute(() -> preloadFromQueue(queue, loading)));
+    }
+    preloadFromQueue(queue, loading);
+    synchronized (loading) {
+      try {
+        while (loading.get() > 0) {
+          loading.wait();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    for (ThreadContext<Void> job : jobs) {
+      job.cancel();
+    }
+  }
+
+  private void preloadFromQueue(Queue<IeeeAddress> queue, AtomicInteger loading) {
+    while (true) {
+      IeeeAddress address;
+      // queue is guarded by loading counter monitor
+      synchronized (loading) {
+        address = queue.poll();
+        if (address == null) {
+          return;
+        }
+        loading.incrementAndGet();
+      }
+      try {
+        ZigBeeNodeDao node = loadNode(address);
+        if (node != null) {
+          preloadedNodes.put(address, node);
+        }
+      } finally {
+        synchronized (loading) {
+          loading.decrementAndGet();
+          loading.notifyAll();
+        }
+      }
+    }
+  }
+
+  protected XStream createStream(HierarchicalStreamDriver driver) {
+    XStream stream = new XStream(driver);
+    stream.allowTypesByWildcard(new String[]{ZigBeeNode.class.getPackage().getName() + ".**"});
+    stream.setClassLoader(this.getClass().getClassLoader());
+
+    stream.alias("ZigBeeNode", ZigBeeNodeDao.class);
+    stream.alias("ZigBeeEndpoint", ZigBeeEndpointDao.class);
+    stream.alias("ZclCluster", ZclClusterDao.class);
+    stream.alias("ZclAttribute", ZclAttributeDao.class);
+    stream.alias("MacCapabilitiesType", MacCapabilitiesType.class);
+    stream.alias("ServerCapabilitiesType", ServerCapabilitiesType.class);
+    stream.alias("PowerSourceType", PowerSourceType.class);
+    stream.alias("FrequencyBandType", FrequencyBandType.class);
+    stream.alias("BindingTable", BindingTable.class);
+    stream.alias("IeeeAddress", BindingTable.class);
+    stream.registerConverter(new IeeeAddressConverter());
+    return stream;
+  }
+
+  /**
+   * Try restore minimal node information from db if unable to read node from store
+   */
+  protected @Nullable ZigBeeNodeDao restoreMinimalNode(IeeeAddress address) {
+    ZigBeeDeviceEntity zigBeeDeviceEntity = entityContext.getEntity(ZigBeeDeviceEntity.PREFIX + address.toString());
+    if (zigBeeDeviceEntity != null && zigBeeDeviceEntity.getNetworkAddress() != 0) {
+      log.warn("[{}]: Restore minimal information {}", entityID, address);
+      ZigBeeNodeDao node = new ZigBeeNodeDao();
+      node.setIeeeAddress(address);
+      node.setNetworkAddress(zigBeeDeviceEntity.getNetworkAddress());
+      return node;
+    }
+    return null;
+  }
+
+  /**
+   * Flush queued writes and release resources
+   */
+  public void close() {
+    cancelFlushJob();
+    flush();
+    preloadedNodes.clear();
+    release();
+  }
+
+  /**
+   * Deletes the network state file
+   */
+  public synchronized void delete() {
+    cancelFlushJob();
+    synchronized (pendingWrites) {
+      pendingWrites.clear();
+    }
+    release();
+    try {
+      log.debug("[{}]: Deleting ZigBee network state", entityID);
+      Files.walk(networkStateFilePath).sorted(Comparator.reverseOrder()).map(Path::toFile)
+           .forEach(File::delete);
+    } catch (IOException e) {
+      log.error("[{}]: Error deleting ZigBee network state {} ", entityID, networkStateFilePath, e);
+    }
+  }
+
+  private void cancelFlushJob() {
+    synchronized (pendingWrites) {
+      if (flushJob != null) {
+        flushJob.cancel();
+        flushJob = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package org.homio.bundle.zigbee.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer/single-consumer byte ring buffer used as serial receive fifo.
+ * <p>
+ * The serial event thread is the only producer ({@link #write(byte[])}) and the transport receive thread is the only consumer
+ * ({@link #read(int)}). No lock is taken per byte. A blocked consumer is parked and unparked by the producer as soon as new data is
+ * published, or by {@link #close()} when port is closed. {@link #clear()} may be called from any thread, so consumer advances head by CAS
+ * and retries if buffer was purged while it read data.
+ */
+public class ByteRingBuffer {
+
+  private final byte[] buffer;
+  private final int mask;
+
+  /**
+   * Next index to read. Advanced by consumer and by clear()
+   */
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Next index to write. Modified only by producer
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Consumer thread currently parked in read, or null
+   */
+  private volatile Thread waitingReader;
+
+  /**
+   * Set by close() and reset by reader that has been released by it. Kept if reader wasn't waiting at the moment of close, so it can't
+   * start waiting for full timeout on closed port
+   */
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  public ByteRingBuffer(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Ring buffer capacity must be positive: " + capacity);
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.buffer = new byte[size];
+    this.mask = size - 1;
+  }
+
+  public int capacity() {
+    return buffer.length;
+  }
+
+  public int available() {
+    return (int) (tail.get() - head.get());
+  }
+
+  /**
+   * Append bytes to the buffer. Must be called only from producer thread.
+   *
+   * @return number of bytes that could not be stored because buffer was full
+   */
+  public int write(byte[] data) {
+    long currentTail = tail.get();
+    int free = buffer.length - (int) (currentTail - head.get());
+    int count = Math.min(free, data.length);
+    int offset = (int) (currentTail & mask);
+    int firstPart = Math.min(count, buffer.length - offset);
+    System.arraycopy(data, 0, buffer, offset, firstPart);
+    System.arraycopy(data, firstPart, buffer, 0, count - firstPart);
+    if (count > 0) {
+      // full fence: tail store must not be reordered with waitingReader load, otherwise wakeup may be lost
+      tail.set(currentTail + count);
+      Thread reader = waitingReader;
+      if (reader != null) {
+        LockSupport.unpark(reader);
+      }
+    }
+    return data.length - count;
+  }
+
+  /**
+   * Read single byte, waiting up to timeout milliseconds. Must be called only from consumer thread.
+   *
+   * @return unsigned byte value or -1 if timeout reached or thread interrupted
+   */
+  public int read(int timeout) {
+    while (awaitData(timeout)) {
+      long currentHead = head.get();
+      int value = buffer[(int) (currentHead & mask)] & 0xff;
+      if (head.compareAndSet(currentHead, currentHead + 1)) {
+        return value;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Drop all buffered data. May be called from any thread.
+   */
+  public void clear() {
+    long currentHead;
+    do {
+      currentHead = head.get();
+    } while (!head.compareAndSet(currentHead, Math.max(currentHead, tail.get())));
+  }
+
+  /**
+   * Drop all buffered data and release reader waiting for data, so it returns -1 without waiting for timeout. If no reader waits, next
+   * waiting read returns -1 immediately. May be called from any thread. Buffer stays usable, following reads wait for data as usual
+   */
+  public void close() {
+    clear();
+    closed.set(true);
+    Thread reader = waitingReader;
+    if (reader != null) {
+      LockSupport.unpark(reader);
+    }
+  }
+
+  private boolean awaitData(int timeout) {
+    if (tail.get() != head.get()) {
+      return true;
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    waitingReader = Thread.currentThread();
+    try {
+      while (tail.get() == head.get()) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || closed.compareAndSet(true, false) || Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      return true;
+    } finally {
+      waitingReader = null;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package org.homio.bundle.zigbee.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+/**
+ * Counters and histograms of serial link between coordinator and dongle.
+ * <p>
+ * Updated from serial event thread (RX), transport receive thread (read latency) and any thread that writes frames (TX). Counters start
+ * from zero with every coordinator start, as each start opens new serial port with own metrics.
+ */
+public class SerialPortMetrics {
+
+  /**
+   * Upper bounds (exclusive) in microseconds of read latency histogram buckets. Last bucket has no bound
+   */
+  private static final long[] READ_LATENCY_BUCKETS_US = {100, 1_000, 10_000, 100_000, 1_000_000};
+  private static final String[] READ_LATENCY_BUCKET_NAMES = {"<0.1ms", "<1ms", "<10ms", "<100ms", "<1s", ">=1s"};
+
+  /**
+   * Minimal window in ms used to calculate per-second rates
+   */
+  private static final long RATE_WINDOW = 5000;
+
+  private final LongAdder rxBytes = new LongAdder();
+  private final LongAdder rxEvents = new LongAdder();
+  private final LongAdder txBytes = new LongAdder();
+  private final LongAdder txFrames = new LongAdder();
+  private final LongAdder txWrites = new LongAdder();
+  @Getter private final AtomicLong txErrors = new AtomicLong();
+  private final LongAdder overruns = new LongAdder();
+  private final LongAdder overrunBytes = new LongAdder();
+  private final AtomicLongArray readLatencyHistogram = new AtomicLongArray(READ_LATENCY_BUCKET_NAMES.length);
+  private final LongAdder readLatencyTotalNanos = new LongAdder();
+  private final LongAdder readLatencyCount = new LongAdder();
+
+  /**
+   * Time when serial event has published data into empty buffer, or 0 if data has been read already
+   */
+  private final AtomicLong firstUnreadNanos = new AtomicLong();
+  private final AtomicLong maxEventToReadGapNanos = new AtomicLong();
+
+  private long rateSampleTime = System.currentTimeMillis();
+  private long rateSampleRxBytes;
+  private long rateSampleTxBytes;
+  private long rateSampleTxFrames;
+  private double rxBytesPerSecond;
+  private double txBytesPerSecond;
+  private double txFramesPerSecond;
+
+  public void onSerialEvent(int bytes, int dropped) {
+    rxEvents.increment();
+    rxBytes.add(bytes - dropped);
+    if (dropped > 0) {
+      overruns.increment();
+      overrunBytes.add(dropped);
+    }
+    firstUnreadNanos.compareAndSet(0, System.nanoTime());
+  }
+
+  /**
+   * Called by reader for every consumed byte. Latency from serial event to consumption is measured once per event, by first byte read
+   * after it, so idle waits for next data are not counted and other bytes cost single volatile read
+   */
+  public void onRead() {
+    if (firstUnreadNanos.get() == 0) {
+      return;
+    }
+    long since = firstUnreadNanos.getAndSet(0);
+    if (since == 0) {
+      return;
+    }
+    long latencyNanos = System.nanoTime() - since;
+    readLatencyTotalNanos.add(latencyNanos);
+    readLatencyCount.increment();
+    maxEventToReadGapNanos.accumulateAndGet(latencyNanos, Math::max);
+    long latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+    int bucket = 0;
+    while (bucket < READ_LATENCY_BUCKETS_US.length && latencyMicros >= READ_LATENCY_BUCKETS_US[bucket]) {
+      bucket++;
+    }
+    readLatencyHistogram.incrementAndGet(bucket);
+  }
+
+  public void onWrite(int bytes, int frames) {
+    txWrites.increment();
+    txBytes.add(bytes);
+    txFrames.add(frames);
+  }
+
+  public long onWriteError() {
+    return txErrors.incrementAndGet();
+  }
+
+  public Snapshot snapshot() {
+    updateRates();
+    return new Snapshot(this);
+  }
+
+  private synchronized void updateRates() {
+    long now = System.currentTimeMillis();
+    long window = now - rateSampleTime;
+    if (window >= RATE_WINDOW) {
+      long rx = rxBytes.sum();
+      long tx = txBytes.sum();
+      long frames = txFrames.sum();
+      rxBytesPerSecond = (rx - rateSampleRxBytes) * 1000D / window;
+      txBytesPerSecond = (tx - rateSampleTxBytes) * 1000D / window;
+      txFramesPerSecond = (frames - rateSampleTxFrames) * 1000D / window;
+      rateSampleTime = now;
+      rateSampleRxBytes = rx;
+      rateSampleTxBytes = tx;
+      rateSampleTxFrames = frames;
+    }
+  }
+
+  @Getter
+  public static class Snapshot {
+
+    private final long rxBytes;
+    private final long rxEvents;
+    private final long txBytes;
+    private final long txFrames;
+    private final long txWrites;
+    private final long txErrors;
+    private final long overruns;
+    private final long overrunBytes;
+    private final double rxBytesPerSecond;
+    private final double txBytesPerSecond;
+    private final double txFramesPerSecond;
+    private final long avgEventToReadGapMicros;
+    private final long maxEventToReadGapMicros;
+    private final String readLatencyHistogram;
+
+    private Snapshot(SerialPortMetrics metrics) {
+      this.rxBytes = metrics.rxBytes.sum();
+      this.rxEvents = metrics.rxEvents.sum();
+      this.txBytes = metrics.txBytes.sum();
+      this.txFrames = metrics.txFrames.sum();
+      this.txWrites = metrics.txWrites.sum();
+      this.txErrors = metrics.txErrors.get();
+      this.overruns = metrics.overruns.sum();
+      this.overrunBytes = metrics.overrunBytes.sum();
+      synchronized (metrics) {
+        this.rxBytesPerSecond = metrics.rxBytesPerSecond;
+        this.txBytesPerSecond = metrics.txBytesPerSecond;
+        this.txFramesPerSecond = metrics.txFramesPerSecond;
+      }
+      long readLatencyCount = metrics.readLatencyCount.sum();
+      this.avgEventToReadGapMicros = readLatencyCount == 0 ? 0 :
+          TimeUnit.NANOSECONDS.toMicros(metrics.readLatencyTotalNanos.sum() / readLatencyCount);
+      this.maxEventToReadGapMicros = TimeUnit.NANOSECONDS.toMicros(metrics.maxEventToReadGapNanos.get());
+
+      StringBuilder histogram = new StringBuilder();
+      for (int i = 0; i < READ_LATENCY_BUCKET_NAMES.length; i++) {
+        if (i > 0) {
+          histogram.append(", ");
+        }
+        histogram.append(READ_LATENCY_BUCKET_NAMES[i]).append(": ").append(metrics.readLatencyHistogram.get(i));
+      }
+      this.readLatencyHistogram = histogram.toString();
+    }
+  }
+}
@@ -0,0 +1,694 @@
+package org.homio.bundle.zigbee.internal;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.binary.BinaryStreamDriver;
+import com.zsmartsystems.zigbee.IeeeAddress;
+import com.zsmartsystems.zigbee.database.ZclClusterDao;
+import com.zsmartsystems.zigbee.database.ZigBeeEndpointDao;
+import com.zsmartsystems.zigbee.database.ZigBeeNodeDao;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.EntityContext;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Network state store that keeps all nodes in segmented, append-only binary log.
+ * <p>
+ * Every write appends records: magic(4), type(1), ieee address(8), payload length(4), payload, crc32(4) where crc covers everything
+ * from type to payload and payload is serialized with XStream binary driver. PUT record holds full node snapshot, REMOVE record
+ * deletes node. To reduce flash wear, following writes of node append only changed parts on top of latest snapshot: NODE record
+ * (node without endpoints) and CLUSTER records (one cluster, payload prefixed with cluster key). Parts are compared by hash of their
+ * serialized form. Full snapshot is written if endpoints/clusters layout changes, once per FULL_SNAPSHOT_INTERVAL, when deltas
+ * outgrow snapshot, and on first write after open since part hashes are kept only in memory. Torn/corrupted tail of segment (i.e. after
+ * power loss) is detected by checksum and cut off on open. When amount of outdated records grows over live data, all live records are
+ * copied into temp file which is synced and atomically renamed to new segment with higher id, then old segments are deleted. Crash
+ * during compaction leaves either old segments only (temp file is deleted on next open) or both complete copies where newer one wins.
+ * <p>
+ * On first open existing per-node xml files from {@link ZigBeeDataStore} are imported. Xml files are left in place so switching back to
+ * xml store is possible. 'xml-migrated' marker file holds state of xml files at last sync: xml files changed by xml store after it are
+ * imported again, while xml store exports log state into xml files if log was written after it.
+ */
+@Log4j2
+public class ZigBeeBinaryDataStore extends BaseZigBeeDataStore {
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".zlog";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String XML_MIGRATED_MARKER = "xml-migrated";
+
+  private static final int RECORD_MAGIC = 0x5A42444C; // ZBDL
+  private static final byte RECORD_PUT = 1;
+  private static final byte RECORD_REMOVE = 2;
+  private static final byte RECORD_NODE = 3;
+  private static final byte RECORD_CLUSTER = 4;
+  // magic + type + ieee address + payload length
+  private static final int RECORD_HEADER_SIZE = 4 + 1 + 8 + 4;
+  private static final int RECORD_CRC_SIZE = 4;
+  private static final int MAX_PAYLOAD_SIZE = 4 * 1024 * 1024;
+
+  /**
+   * Active segment is rolled over when reaches this size
+   */
+  private static final long SEGMENT_MAX_SIZE = 512 * 1024;
+
+  /**
+   * Compact log when outdated records take more than this part of all segments and log is bigger than one segment
+   */
+  private static final double COMPACTION_GARBAGE_RATIO = 0.5;
+
+  /**
+   * Max age of node snapshot after which next write stores full node instead of changed parts
+   */
+  private static final long FULL_SNAPSHOT_INTERVAL = TimeUnit.HOURS.toMillis(24);
+
+  private final Map<IeeeAddress, NodeEntry> index = new HashMap<>();
+  private final TreeMap<Integer, Path> segments = new TreeMap<>();
+  private final CRC32 crc = new CRC32();
+
+  private final XStream stream;
+
+  private boolean opened;
+  private FileChannel activeChannel;
+  private int activeSegmentId;
+  private long activeSegmentSize;
+  private long totalBytes;
+  private long liveBytes;
+
+  public ZigBeeBinaryDataStore(String networkId, EntityContext entityContext, String entityID) {
+    super(networkId, entityContext, entityID);
+    this.stream = createStream(new BinaryStreamDriver());
+  }
+
+  ZigBeeBinaryDataStore(Path networkStateFilePath, EntityContext entityContext, String entityID) {
+    super(networkStateFilePath, entityContext, entityID);
+    this.stream = createStream(new BinaryStreamDriver());
+  }
+
+  @Override
+  protected synchronized Set<IeeeAddress> listNodes() {
+    if (!ensureOpened()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(index.keySet());
+  }
+
+  /**
+   * Only file reads happen under lock, so parallel startup loading deserializes nodes concurrently
+   */
+  @Override
+  protected ZigBeeNodeDao loadNode(IeeeAddress address) {
+    try {
+      ByteBuffer snapshot = null;
+      ByteBuffer header = null;
+      List<ByteBuffer> clusters = new ArrayList<>();
+      synchronized (this) {
+        NodeEntry entry = ensureOpened() ? index.get(address) : null;
+        if (entry != null) {
+          snapshot = readRecord(entry.snapshot);
+          header = entry.header == null ? null : readRecord(entry.header);
+          for (RecordLocation location : entry.clusters.values()) {
+            clusters.add(readRecord(location));
+          }
+        }
+      }
+      if (snapshot != null) {
+        ZigBeeNodeDao node = (ZigBeeNodeDao) deserialize(snapshot, 0);
+        if (header != null) {
+          ZigBeeNodeDao nodeHeader = (ZigBeeNodeDao) deserialize(header, 0);
+          nodeHeader.setEndpoints(node.getEndpoints());
+          node = nodeHeader;
+        }
+        for (ByteBuffer cluster : clusters) {
+          applyCluster(node, cluster.getInt(RECORD_HEADER_SIZE), (ZclClusterDao) deserialize(cluster, 4));
+        }
+        return node;
+      }
+    } catch (Exception ex) {
+      log.error("[{}]: Error reading network state: {}", entityID, address, ex);
+    }
+    return restoreMinimalNode(address);
+  }
+
+  @Override
+  protected synchronized void storeNode(ZigBeeNodeDao node) {
+    if (!ensureOpened()) {
+      return;
+    }
+    IeeeAddress address = node.getIeeeAddress();
+    try {
+      NodeParts parts = new NodeParts(node);
+      NodeEntry entry = index.get(address);
+      if (entry == null || entry.clusterHashes == null || entry.structureHash != parts.structureHash
+          || entry.deltaBytes >= entry.snapshot.length
+          || System.currentTimeMillis() - entry.snapshotTime >= FULL_SNAPSHOT_INTERVAL) {
+        appendRecord(RECORD_PUT, address, serialize(node));
+        entry = index.get(address);
+        entry.snapshotTime = System.currentTimeMillis();
+        entry.structureHash = parts.structureHash;
+        entry.headerHash = parts.headerHash;
+        entry.clusterHashes = parts.clusterHashes;
+        log.debug("[{}]: ZigBee saving network state complete. {}", entityID, address);
+      } else {
+        int changes = 0;
+        if (entry.headerHash != parts.headerHash) {
+          entry.deltaBytes += appendRecord(RECORD_NODE, address, parts.header).length;
+          entry.headerHash = parts.headerHash;
+          changes++;
+        }
+        for (Map.Entry<Integer, byte[]> cluster : parts.clusters.entrySet()) {
+          Integer hash = parts.clusterHashes.get(cluster.getKey());
+          if (!Objects.equals(entry.clusterHashes.get(cluster.getKey()), hash)) {
+            entry.deltaBytes += appendRecord(RECORD_CLUSTER, address, cluster.getValue()).length;
+            entry.clusterHashes.put(cluster.getKey(), hash);
+            changes++;
+          }
+        }
+        log.debug("[{}]: ZigBee saving network state complete. {}. Changed parts: {}", entityID, address, changes);
+      }
+      compactIfRequire();
+    } catch (Exception e) {
+      log.error("[{}]: Error writing network state: {}", entityID, address, e);
+    }
+  }
+
+  @Override
+  protected synchronized void deleteNode(IeeeAddress address) {
+    if (!ensureOpened()) {
+      return;
+    }
+    if (!index.containsKey(address)) {
+      log.error("[{}]: Error removing network state {}", entityID, address);
+      return;
+    }
+    try {
+      appendRecord(RECORD_REMOVE, address, new byte[0]);
+      compactIfRequire();
+    } catch (Exception e) {
+      log.error("[{}]: Error removing network state: {}", entityID, address, e);
+    }
+  }
+
+  @Override
+  protected synchronized void release() {
+    if (activeChannel != null) {
+      try {
+        activeChannel.force(false);
+        activeChannel.close();
+      } catch (IOException e) {
+        log.warn("[{}]: Error closing network state log: {}", entityID, e.getMessage());
+      }
+    }
+    activeChannel = null;
+    opened = false;
+    index.clear();
+    segments.clear();
+    totalBytes = 0;
+    liveBytes = 0;
+  }
+
+  private boolean ensureOpened() {
+    if (opened) {
+      return true;
+    }
+    try {
+      open();
+      opened = true;
+      return true;
+    } catch (Exception ex) {
+      log.error("[{}]: Unable to open network state log {}", entityID, networkStateFilePath, ex);
+      release();
+      return false;
+    }
+  }
+
+  private void open() throws IOException {
+    Files.createDirectories(networkStateFilePath);
+    File[] files = networkStateFilePath.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().endsWith(TEMP_SUFFIX)) {
+          // interrupted compaction
+          log.warn("[{}]: Delete unfinished network state file {}", entityID, file.getName());
+          Files.delete(file.toPath());
+          continue;
+        }
+        Integer segmentId = getSegmentId(file.getName());
+        if (segmentId != null) {
+          segments.put(segmentId, file.toPath());
+        }
+      }
+    }
+    for (Map.Entry<Integer, Path> entry : segments.entrySet()) {
+      scanSegment(entry.getKey(), entry.getValue(), entry.getKey().equals(segments.lastKey()));
+    }
+    if (segments.isEmpty()) {
+      openActiveSegment(1);
+    } else {
+      openActiveSegment(segments.lastKey());
+    }
+    log.info("[{}]: Opened network state log with {} nodes in {} segments", entityID, index.size(), segments.size());
+
+    migrateXmlStore();
+    compactIfRequire();
+  }
+
+  private void scanSegment(int segmentId, Path path, boolean lastSegment) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    int position = 0;
+    while (buffer.remaining() > 0) {
+      position = buffer.position();
+      RecordLocation location = readNextRecord(buffer, segmentId);
+      if (location == null) {
+        buffer.position(position);
+        break;
+      }
+      byte type = buffer.get(position + 4);
+      int clusterKey = type == RECORD_CLUSTER ? buffer.getInt(position + RECORD_HEADER_SIZE) : 0;
+      applyRecord(type, readAddress(buffer, position + 5), clusterKey, location);
+    }
+    if (buffer.remaining() > 0) {
+      log.warn("[{}]: Found corrupted network state record in {} at {}. Dropping {} bytes", entityID, path.getFileName(),
+          buffer.position(), buffer.remaining());
+      if (lastSegment) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+          channel.truncate(buffer.position());
+        }
+      }
+    }
+  }
+
+  /**
+   * Parse record at buffer position and move position to next record
+   *
+   * @return record location or null if record is truncated or checksum not match
+   */
+  private @Nullable RecordLocation readNextRecord(ByteBuffer buffer, int segmentId) {
+    int start = buffer.position();
+    if (buffer.remaining() < RECORD_HEADER_SIZE + RECORD_CRC_SIZE || buffer.getInt(start) != RECORD_MAGIC) {
+      return null;
+    }
+    byte type = buffer.get(start + 4);
+    int payloadLength = buffer.getInt(start + 13);
+    if (type < RECORD_PUT || type > RECORD_CLUSTER || payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE
+        || (type == RECORD_CLUSTER && payloadLength < 4) || buffer.remaining() < RECORD_HEADER_SIZE + payloadLength + RECORD_CRC_SIZE) {
+      return null;
+    }
+    int crcOffset = start + RECORD_HEADER_SIZE + payloadLength;
+    if (buffer.getInt(crcOffset) != checksum(buffer.array(), start + 4, crcOffset - start - 4)) {
+      return null;
+    }
+    buffer.position(crcOffset + RECORD_CRC_SIZE);
+    return new RecordLocation(segmentId, start, RECORD_HEADER_SIZE + payloadLength + RECORD_CRC_SIZE);
+  }
+
+  private ByteBuffer readRecord(RecordLocation location) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(location.length);
+    try (FileChannel channel = FileChannel.open(segments.get(location.segmentId), StandardOpenOption.READ)) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, location.offset + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of segment " + location.segmentId);
+        }
+      }
+    }
+    buffer.flip();
+    if (readNextRecord(buffer, location.segmentId) == null) {
+      throw new IOException("Checksum mismatch of record in segment " + location.segmentId + " at " + location.offset);
+    }
+    return buffer;
+  }
+
+  private RecordLocation appendRecord(byte type, IeeeAddress address, byte[] payload) throws IOException {
+    if (activeSegmentSize >= SEGMENT_MAX_SIZE) {
+      activeChannel.force(false);
+      activeChannel.close();
+      openActiveSegment(activeSegmentId + 1);
+    }
+    ByteBuffer record = buildRecord(type, address, payload);
+    RecordLocation location = new RecordLocation(activeSegmentId, activeSegmentSize, record.capacity());
+    writeFully(activeChannel, record, activeSegmentSize);
+    activeSegmentSize += location.length;
+    applyRecord(type, address, type == RECORD_CLUSTER ? record.getInt(RECORD_HEADER_SIZE) : 0, location);
+    return location;
+  }
+
+  /**
+   * Update index with appended or scanned record
+   */
+  private void applyRecord(byte type, IeeeAddress address, int clusterKey, RecordLocation location) {
+    totalBytes += location.length;
+    NodeEntry entry = index.get(address);
+    if (type == RECORD_PUT) {
+      if (entry != null) {
+        liveBytes -= entry.getLength();
+      }
+      index.put(address, new NodeEntry(location));
+      liveBytes += location.length;
+    } else if (type == RECORD_REMOVE) {
+      if (entry != null) {
+        liveBytes -= entry.getLength();
+        index.remove(address);
+      }
+    } else if (entry != null) { // parts without snapshot are dropped
+      RecordLocation prev;
+      if (type == RECORD_NODE) {
+        prev = entry.header;
+        entry.header = location;
+      } else {
+        prev = entry.clusters.put(clusterKey, location);
+      }
+      liveBytes += location.length - (prev == null ? 0 : prev.length);
+    }
+  }
+
+  private ByteBuffer buildRecord(byte type, IeeeAddress address, byte[] payload) {
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length + RECORD_CRC_SIZE);
+    record.putInt(RECORD_MAGIC);
+    record.put(type);
+    for (int value : address.getValue()) {
+      record.put((byte) value);
+    }
+    record.putInt(payload.length);
+    record.put(payload);
+    record.putInt(checksum(record.array(), 4, record.position() - 4));
+    record.flip();
+    return record;
+  }
+
+  private void openActiveSegment(int segmentId) throws IOException {
+    Path path = segments.computeIfAbsent(segmentId, id -> networkStateFilePath.resolve(getSegmentName(id)));
+    activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    activeSegmentId = segmentId;
+    activeSegmentSize = activeChannel.size();
+  }
+
+  private void compactIfRequire() throws IOException {
+    long garbage = totalBytes - liveBytes;
+    if (segments.size() < 2 || garbage < totalBytes * COMPACTION_GARBAGE_RATIO) {
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    List<Integer> oldSegments = new ArrayList<>(segments.keySet());
+    int compactedSegmentId = activeSegmentId + 1;
+    Path compactedPath = networkStateFilePath.resolve(getSegmentName(compactedSegmentId));
+    Path tempPath = networkStateFilePath.resolve(getSegmentName(compactedSegmentId) + TEMP_SUFFIX);
+
+    Map<RecordLocation, RecordLocation> relocations = new HashMap<>();
+    try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)) {
+      long position = 0;
+      for (NodeEntry entry : index.values()) {
+        // snapshot goes first so parts are applied on top of it on next open
+        for (RecordLocation location : entry.getLocations()) {
+          ByteBuffer record = readRecord(location);
+          record.rewind();
+          writeFully(channel, record, position);
+          relocations.put(location, new RecordLocation(compactedSegmentId, position, location.length));
+          position += location.length;
+        }
+      }
+      channel.force(true);
+    }
+    // segment appears only complete, and rename must be durable before old segments are gone
+    Files.move(tempPath, compactedPath, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory();
+    activeChannel.close();
+    for (Integer segmentId : oldSegments) {
+      Files.deleteIfExists(segments.remove(segmentId));
+    }
+    syncDirectory();
+    segments.put(compactedSegmentId, compactedPath);
+    for (NodeEntry entry : index.values()) {
+      entry.relocate(relocations::get);
+    }
+    openActiveSegment(compactedSegmentId);
+    totalBytes = activeSegmentSize;
+    liveBytes = activeSegmentSize;
+    log.info("[{}]: Compacted network state log. Dropped {} bytes in {}ms", entityID, garbage,
+        System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Import nodes from xml files stored by ZigBeeDataStore. Xml files are kept untouched. Marker holds state of xml files at last
+   * import/export, so files changed by xml store since then (store type was switched back and forth) are imported again and replace
+   * log state, including removal of nodes which xml store has removed
+   */
+  private void migrateXmlStore() throws IOException {
+    Path markerPath = networkStateFilePath.resolve(XML_MIGRATED_MARKER);
+    String xmlState = ZigBeeDataStore.getXmlState(networkStateFilePath);
+    boolean migrated = Files.exists(markerPath);
+    if (migrated && xmlState.equals(Files.readString(markerPath))) {
+      return;
+    }
+    ZigBeeDataStore xmlDataStore = new ZigBeeDataStore(networkStateFilePath, entityContext, entityID);
+    Set<IeeeAddress> xmlNodes = xmlDataStore.listXmlNodes();
+    if (migrated) {
+      log.info("[{}]: Xml network state changed since last import. Import {} nodes", entityID, xmlNodes.size());
+      for (IeeeAddress address : new ArrayList<>(index.keySet())) {
+        if (!xmlNodes.contains(address)) {
+          appendRecord(RECORD_REMOVE, address, new byte[0]);
+        }
+      }
+    } else if (!xmlNodes.isEmpty()) {
+      log.info("[{}]: Migrate {} nodes from xml network state", entityID, xmlNodes.size());
+    }
+    for (IeeeAddress address : xmlNodes) {
+      if (!migrated && index.containsKey(address)) {
+        continue; // already migrated, i.e. previous migration was interrupted
+      }
+      ZigBeeNodeDao node = xmlDataStore.loadNode(address);
+      if (node != null) {
+        appendRecord(RECORD_PUT, address, serialize(node));
+      }
+    }
+    activeChannel.force(true);
+    writeXmlMarker(networkStateFilePath, xmlState);
+    syncDirectory();
+  }
+
+  /**
+   * @return true if log was written after xml files were last synced with it, so xml files are outdated
+   */
+  static boolean isXmlOutdated(Path networkStateFilePath) throws IOException {
+    Path markerPath = networkStateFilePath.resolve(XML_MIGRATED_MARKER);
+    File[] files = networkStateFilePath.toFile().listFiles();
+    if (files == null || !Files.exists(markerPath)) {
+      return false;
+    }
+    long syncTime = Files.getLastModifiedTime(markerPath).toMillis();
+    for (File file : files) {
+      // same time counts as outdated, file time resolution may be coarse
+      if (getSegmentId(file.getName()) != null && file.lastModified() >= syncTime) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mark xml files as synced with log after xml store exported log state into them
+   */
+  static void markXmlSynced(Path networkStateFilePath) throws IOException {
+    writeXmlMarker(networkStateFilePath, ZigBeeDataStore.getXmlState(networkStateFilePath));
+  }
+
+  private static void writeXmlMarker(Path networkStateFilePath, String xmlState) throws IOException {
+    Path markerPath = networkStateFilePath.resolve(XML_MIGRATED_MARKER);
+    Path tempPath = networkStateFilePath.resolve(XML_MIGRATED_MARKER + TEMP_SUFFIX);
+    Files.writeString(tempPath, xmlState);
+    Files.move(tempPath, markerPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Persist directory entries (renames, deletes). Not supported on every platform, i.e. Windows, where it's skipped
+   */
+  private void syncDirectory() {
+    try (FileChannel channel = FileChannel.open(networkStateFilePath, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException ex) {
+      log.debug("[{}]: Unable to sync network state directory: {}", entityID, ex.getMessage());
+    }
+  }
+
+  private byte[] serialize(Object value) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024);
+    stream.toXML(value, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Deserialize payload of record read by readRecord(), skipping prefixLength bytes of payload
+   */
+  private Object deserialize(ByteBuffer record, int prefixLength) {
+    int offset = RECORD_HEADER_SIZE + prefixLength;
+    return stream.fromXML(new ByteArrayInputStream(record.array(), offset, record.capacity() - offset - RECORD_CRC_SIZE));
+  }
+
+  private static void applyCluster(ZigBeeNodeDao node, int clusterKey, ZclClusterDao cluster) {
+    for (ZigBeeEndpointDao endpoint : node.getEndpoints()) {
+      if (Objects.equals(endpoint.getEndpointId(), clusterKey >> 17)) {
+        List<ZclClusterDao> clusters = (clusterKey & 0x10000) != 0 ? endpoint.getInputClusters() : endpoint.getOutputClusters();
+        clusters.removeIf(c -> Objects.equals(c.getClusterId(), cluster.getClusterId()));
+        clusters.add(cluster);
+        return;
+      }
+    }
+  }
+
+  private static int getClusterKey(ZigBeeEndpointDao endpoint, ZclClusterDao cluster, boolean input) {
+    return endpoint.getEndpointId() << 17 | (input ? 0x10000 : 0) | cluster.getClusterId();
+  }
+
+  private int checksum(byte[] data, int offset, int length) {
+    crc.reset();
+    crc.update(data, offset, length);
+    return (int) crc.getValue();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static IeeeAddress readAddress(ByteBuffer buffer, int offset) {
+    int[] address = new int[8];
+    for (int i = 0; i < address.length; i++) {
+      address[i] = buffer.get(offset + i) & 0xFF;
+    }
+    return new IeeeAddress(address);
+  }
+
+  private static String getSegmentName(int segmentId) {
+    return String.format("%s%06d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX);
+  }
+
+  private static @Nullable Integer getSegmentId(String fileName) {
+    if (fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX)) {
+      try {
+        return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+      } catch (NumberFormatException ignore) {
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Serialized parts of node with hashes used to detect which parts has been changed since last write
+   */
+  private class NodeParts {
+
+    private final byte[] header;
+    private final int headerHash;
+    private final int structureHash;
+    private final Map<Integer, byte[]> clusters = new HashMap<>();
+    private final Map<Integer, Integer> clusterHashes = new HashMap<>();
+
+    private NodeParts(ZigBeeNodeDao node) {
+      ZigBeeNodeDao nodeHeader = new ZigBeeNodeDao();
+      nodeHeader.setIeeeAddress(node.getIeeeAddress());
+      nodeHeader.setNetworkAddress(node.getNetworkAddress());
+      nodeHeader.setNodeDescriptor(node.getNodeDescriptor());
+      nodeHeader.setPowerDescriptor(node.getPowerDescriptor());
+      nodeHeader.setBindingTable(node.getBindingTable());
+      this.header = serialize(nodeHeader);
+      this.headerHash = checksum(header, 0, header.length);
+
+      List<Object> structure = new ArrayList<>();
+      for (ZigBeeEndpointDao endpoint : node.getEndpoints()) {
+        structure.add(Objects.hash(endpoint.getEndpointId(), endpoint.getProfileId(), endpoint.getDeviceId(), endpoint.getDeviceVersion()));
+        addClusters(endpoint, endpoint.getInputClusters(), true, structure);
+        addClusters(endpoint, endpoint.getOutputClusters(), false, structure);
+      }
+      this.structureHash = structure.hashCode();
+    }
+
+    private void addClusters(ZigBeeEndpointDao endpoint, List<ZclClusterDao> endpointClusters, boolean input, List<Object> structure) {
+      if (endpointClusters == null) {
+        structure.add(input);
+        return;
+      }
+      for (ZclClusterDao cluster : endpointClusters) {
+        int clusterKey = getClusterKey(endpoint, cluster, input);
+        byte[] data = serialize(cluster);
+        byte[] payload = ByteBuffer.allocate(4 + data.length).putInt(clusterKey).put(data).array();
+        clusters.put(clusterKey, payload);
+        clusterHashes.put(clusterKey, checksum(data, 0, data.length));
+        structure.add(clusterKey);
+      }
+    }
+  }
+
+  /**
+   * Live records of node: latest snapshot and parts written after it
+   */
+  private static class NodeEntry {
+
+    private final Map<Integer, RecordLocation> clusters = new HashMap<>();
+    private RecordLocation snapshot;
+    private @Nullable RecordLocation header;
+
+    // state of last write, unknown (null clusterHashes) until first snapshot after open
+    private long snapshotTime;
+    private int structureHash;
+    private int headerHash;
+    private @Nullable Map<Integer, Integer> clusterHashes;
+    private long deltaBytes;
+
+    private NodeEntry(RecordLocation snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    private List<RecordLocation> getLocations() {
+      List<RecordLocation> locations = new ArrayList<>();
+      locations.add(snapshot);
+      if (header != null) {
+        locations.add(header);
+      }
+      locations.addAll(clusters.values());
+      return locations;
+    }
+
+    private long getLength() {
+      long length = 0;
+      for (RecordLocation location : getLocations()) {
+        length += location.length;
+      }
+      return length;
+    }
+
+    private void relocate(UnaryOperator<RecordLocation> relocation) {
+      snapshot = relocation.apply(snapshot);
+      header = header == null ? null : relocation.apply(header);
+      clusters.replaceAll((key, location) -> relocation.apply(location));
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class RecordLocation {
+
+    private final int segmentId;
+    private final long offset;
+    private final int length;
+  }
+}
@@ -1,69 +1,51 @@
 package org.homio.bundle.zigbee.internal;
 
-import static org.homio.bundle.api.util.CommonUtils.resolvePath;
-
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
 import com.thoughtworks.xstream.io.xml.StaxDriver;
 import com.zsmartsystems.zigbee.IeeeAddress;
-import com.zsmartsystems.zigbee.ZigBeeNode;
-import com.zsmartsystems.zigbee.database.ZclAttributeDao;
-import com.zsmartsystems.zigbee.database.ZclClusterDao;
-import com.zsmartsystems.zigbee.database.ZigBeeEndpointDao;
-import com.zsmartsystems.zigbee.database.ZigBeeNetworkDataStore;
 import com.zsmartsystems.zigbee.database.ZigBeeNodeDao;
-import com.zsmartsystems.zigbee.zdo.field.BindingTable;
-import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.FrequencyBandType;
-import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.MacCapabilitiesType;
-import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.ServerCapabilitiesType;
-import com.zsmartsystems.zigbee.zdo.field.PowerDescriptor.PowerSourceType;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 import org.homio.bundle.api.EntityContext;
-import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
 
+/**
+ * Network state store that keeps every node in own xml file (with backup copy). Node files are written only if node xml changed
+ */
 @Log4j2
-public class ZigBeeDataStore implements ZigBeeNetworkDataStore {
+public class ZigBeeDataStore extends BaseZigBeeDataStore {
+
+  private final XStream stream;
 
-  private final Path networkStateFilePath;
-  private final EntityContext entityContext;
-  private final String entityID;
+  /**
+   * Checksum of node xml last written or read per node. Used to skip writes of unchanged nodes to reduce flash wear
+   */
+  private final Map<IeeeAddress, Long> nodeChecksums = new ConcurrentHashMap<>();
 
   public ZigBeeDataStore(String networkId, EntityContext entityContext, String entityID) {
-    this.networkStateFilePath = resolvePath("zigbee", networkId);
-    this.entityContext = entityContext;
-    this.entityID = entityID;
+    super(networkId, entityContext, entityID);
+    this.stream = createStream(new StaxDriver());
   }
 
-  private XStream openStream() {
-    XStream stream = new XStream(new StaxDriver());
-    stream.allowTypesByWildcard(new String[]{ZigBeeNode.class.getPackage().getName() + ".**"});
-    stream.setClassLoader(this.getClass().getClassLoader());
-
-    stream.alias("ZigBeeNode", ZigBeeNodeDao.class);
-    stream.alias("ZigBeeEndpoint", ZigBeeEndpointDao.class);
-    stream.alias("ZclCluster", ZclClusterDao.class);
-    stream.alias("ZclAttribute", ZclAttributeDao.class);
-    stream.alias("MacCapabilitiesType", MacCapabilitiesType.class);
-    stream.alias("ServerCapabilitiesType", ServerCapabilitiesType.class);
-    stream.alias("PowerSourceType", PowerSourceType.class);
-    stream.alias("FrequencyBandType", FrequencyBandType.class);
-    stream.alias("BindingTable", BindingTable.class);
-    stream.alias("IeeeAddress", BindingTable.class);
-    stream.registerConverter(new IeeeAddressConverter());
-    return stream;
+  ZigBeeDataStore(Path networkStateFilePath, EntityContext entityContext, String entityID) {
+    super(networkStateFilePath, entityContext, entityID);
+    this.stream = createStream(new StaxDriver());
   }
 
   private Path getIeeeAddressPath(IeeeAddress address) {
@@ -71,7 +53,12 @@ public class ZigBeeDataStore implements ZigBeeNetworkDataStore {
   }
 
   @Override
-  public Set<IeeeAddress> readNetworkNodes() {
+  protected Set<IeeeAddress> listNodes() {
+    syncFromBinaryStore();
+    return listXmlNodes();
+  }
+
+  Set<IeeeAddress> listXmlNodes() {
     Set<IeeeAddress> nodes = new HashSet<>();
     File[] files = networkStateFilePath.toFile().listFiles();
 
@@ -95,80 +82,138 @@ public class ZigBeeDataStore implements ZigBeeNetworkDataStore {
     return nodes;
   }
 
-  @Override
-  public ZigBeeNodeDao readNode(IeeeAddress address) {
-    XStream stream = openStream();
+  /**
+   * Binary store leaves xml files untouched. If its log was written after xml files were synced with it, they are outdated and are
+   * replaced by log state before loading
+   */
+  private void syncFromBinaryStore() {
+    try {
+      if (!ZigBeeBinaryDataStore.isXmlOutdated(networkStateFilePath)) {
+        return;
+      }
+      ZigBeeBinaryDataStore binaryDataStore = new ZigBeeBinaryDataStore(networkStateFilePath, entityContext, entityID);
+      try {
+        Set<IeeeAddress> nodes = binaryDataStore.listNodes();
+        for (IeeeAddress address : listXmlNodes()) {
+          if (!nodes.contains(address)) {
+            deleteNode(address);
+          }
+        }
+        for (IeeeAddress address : nodes) {
+          ZigBeeNodeDao node = binaryDataStore.loadNode(address);
+          if (node != null) {
+            storeNode(node);
+          }
+        }
+        log.info("[{}]: Exported {} nodes from binary network state", entityID, nodes.size());
+      } finally {
+        binaryDataStore.release();
+      }
+      ZigBeeBinaryDataStore.markXmlSynced(networkStateFilePath);
+    } catch (Exception ex) {
+      log.error("[{}]: Unable to export binary network state to xml", entityID, ex);
+    }
+  }
 
+  /**
+   * @return number of xml files and their latest modification time. Changes on every write/remove of node
+   */
+  static String getXmlState(Path networkStateFilePath) {
+    int count = 0;
+    long lastModified = 0;
+    File[] files = networkStateFilePath.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().toLowerCase().endsWith(".xml")) {
+          count++;
+          lastModified = Math.max(lastModified, file.lastModified());
+        }
+      }
+    }
+    return count + ":" + lastModified;
+  }
+
+  @Override
+  protected ZigBeeNodeDao loadNode(IeeeAddress address) {
     ZigBeeNodeDao node = null;
     try {
-      node = readZigBeeNodeDao(getIeeeAddressPath(address), stream);
+      byte[] data = Files.readAllBytes(getIeeeAddressPath(address));
+      node = readZigBeeNodeDao(data, stream);
+      // file holds exactly what next store of same node would write
+      nodeChecksums.put(address, checksum(data));
     } catch (Exception ex) {
       log.error("[{}]: Error reading network state: {}. Try reading from backup file...", entityID, address, ex);
+      nodeChecksums.remove(address);
       try {
-        node = readZigBeeNodeDao(networkStateFilePath.resolve(address + "_backup.xml"), stream);
-      } catch (IOException e) {
+        node = readZigBeeNodeDao(Files.readAllBytes(networkStateFilePath.resolve(address + "_backup.xml")), stream);
+      } catch (Exception e) {
         log.error("[{}]: Error reading network state {} from backup file", entityID, address);
-        // try restore minimal node from db
-        ZigBeeDeviceEntity zigBeeDeviceEntity = entityContext.getEntity(ZigBeeDeviceEntity.PREFIX + address.toString());
-        if (zigBeeDeviceEntity != null && zigBeeDeviceEntity.getNetworkAddress() != 0) {
-          log.warn("[{}]: Restore minimal information {}", entityID, address);
-          node = new ZigBeeNodeDao();
-          node.setIeeeAddress(address);
-          node.setNetworkAddress(zigBeeDeviceEntity.getNetworkAddress());
-        }
+        node = restoreMinimalNode(address);
       }
     }
 
     return node;
   }
 
+  /**
+   * Node files are rewritten only if serialized node differs from last written/read one
+   */
   @Override
-  public void writeNode(ZigBeeNodeDao node) {
-    XStream stream = openStream();
-    writeZigBeeNode(node, stream, networkStateFilePath.resolve(node.getIeeeAddress() + "_backup.xml"), false);
-    writeZigBeeNode(node, stream, getIeeeAddressPath(node.getIeeeAddress()), true);
-  }
-
-  private void writeZigBeeNode(ZigBeeNodeDao node, XStream stream, Path path, boolean isLog) {
-    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8))) {
-      stream.marshal(node, new PrettyPrintWriter(writer));
-      if (isLog) {
-        log.debug("[{}]: ZigBee saving network state complete. {}", entityID, node.getIeeeAddress());
+  protected void storeNode(ZigBeeNodeDao node) {
+    IeeeAddress address = node.getIeeeAddress();
+    try {
+      byte[] data = writeZigBeeNodeDao(node, stream);
+      long checksum = checksum(data);
+      Long storedChecksum = nodeChecksums.get(address);
+      if (storedChecksum != null && storedChecksum == checksum) {
+        log.debug("[{}]: ZigBee network state not changed. {}", entityID, address);
+        return;
       }
-      // ensure writer is closed. somehow try with resources not closes writer
-      writer.close(); // do not delete this!!!!!!!
+      nodeChecksums.remove(address);
+      Files.write(networkStateFilePath.resolve(address + "_backup.xml"), data);
+      Files.write(getIeeeAddressPath(address), data);
+      nodeChecksums.put(address, checksum);
+      log.debug("[{}]: ZigBee saving network state complete. {}", entityID, address);
     } catch (Exception e) {
-      log.error("[{}]: Error writing network state: {}", entityID, node.getIeeeAddress(), e);
+      log.error("[{}]: Error writing network state: {}", entityID, address, e);
     }
   }
 
-  private ZigBeeNodeDao readZigBeeNodeDao(Path path, XStream stream) throws IOException {
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
-      ZigBeeNodeDao nodeDao = (ZigBeeNodeDao) stream.fromXML(reader);
-      reader.close();
-      return nodeDao;
+  @Override
+  protected void release() {
+    nodeChecksums.clear();
+  }
+
+  private byte[] writeZigBeeNodeDao(ZigBeeNodeDao node, XStream stream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(4096);
+    try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+      PrettyPrintWriter xmlWriter = new PrettyPrintWriter(writer);
+      stream.marshal(node, xmlWriter);
+      // xml writer keeps own buffer
+      xmlWriter.flush();
     }
+    return outputStream.toByteArray();
+  }
+
+  private ZigBeeNodeDao readZigBeeNodeDao(byte[] data, XStream stream) throws IOException {
+    try (Reader reader = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+      return (ZigBeeNodeDao) stream.fromXML(reader);
+    }
+  }
+
+  private static long checksum(byte[] data) {
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    return crc.getValue();
   }
 
   @Override
   @SneakyThrows
-  public void removeNode(IeeeAddress address) {
+  protected void deleteNode(IeeeAddress address) {
+    nodeChecksums.remove(address);
     if (!Files.deleteIfExists(getIeeeAddressPath(address))) {
       log.error("[{}]: Error removing network state {}", entityID, address);
     }
     Files.deleteIfExists(networkStateFilePath.resolve(address + "_backup.xml"));
   }
-
-  /**
-   * Deletes the network state file
-   */
-  public synchronized void delete() {
-    try {
-      log.debug("[{}]: Deleting ZigBee network state", entityID);
-      Files.walk(networkStateFilePath).sorted(Comparator.reverseOrder()).map(Path::toFile)
-           .forEach(File::delete);
-    } catch (IOException e) {
-      log.error("[{}]: Error deleting ZigBee network state {} ", entityID, networkStateFilePath, e);
-    }
-  }
 }
@@ -7,10 +7,14 @@ import com.fazecast.jSerialComm.SerialPort;
 import com.zsmartsystems.zigbee.transport.ZigBeePort;
 import java.io.IOException;
 import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.port.BaseSerialPort;
 import org.homio.bundle.api.port.PortFlowControl;
+import org.homio.bundle.api.state.StringType;
+import org.homio.bundle.api.util.CommonUtils;
 
 /**
  * The default/reference Java serial port implementation using serial events to provide a non-blocking read call.
@@ -19,29 +23,49 @@ import org.homio.bundle.api.port.PortFlowControl;
 public class ZigBeeSerialPort extends BaseSerialPort implements ZigBeePort {
 
   /**
-   * The length of the receive buffer
+   * The default length of the receive buffer
    */
-  private static final int RX_BUFFER_LEN = 512;
+  public static final int DEFAULT_RX_BUFFER_LEN = 2048;
 
   /**
-   * The circular fifo queue for receive data
+   * Event key prefix fired with error message when unable to write to serial port
    */
-  private final int[] buffer = new int[RX_BUFFER_LEN];
+  public static final String TX_ERROR_EVENT_PREFIX = "zigbee-tx-error-";
 
   /**
-   * Synchronisation object for buffer queue manipulation
+   * The circular fifo queue for receive data. Serial event thread writes, transport receive thread reads
    */
-  private final Object bufferSynchronisationObject = new Object();
+  private final ByteRingBuffer buffer;
+
+  private final EntityContext entityContext;
+
+  /**
+   * Per-thread frame buffer to avoid allocation for every outgoing frame
+   */
+  private final ThreadLocal<byte[]> txBuffer = ThreadLocal.withInitial(() -> new byte[256]);
+
+  /**
+   * Synchronisation object for coalescing writer
+   */
+  private final Object txSynchronisationObject = new Object();
 
   /**
-   * The receive buffer end pointer (where we put the newly received data)
+   * Frames collected while another thread is writing to output stream. Flushed with single write
    */
-  private int end = 0;
+  private byte[] txPending = new byte[256];
+  private int txPendingLength = 0;
+  private int txPendingFrames = 0;
+  private byte[] txSending = new byte[256];
+  private boolean txFlushing = false;
 
   /**
-   * The receive buffer start pointer (where we take the data to pass to the application)
+   * Merge back-to-back frames from concurrent writers into single output stream write
    */
-  private int start = 0;
+  @Setter
+  private volatile boolean coalesceWrites = false;
+
+  @Getter
+  private final SerialPortMetrics metrics = new SerialPortMetrics();
 
   public ZigBeeSerialPort(String coordinator,
       EntityContext entityContext,
@@ -51,8 +75,23 @@ public class ZigBeeSerialPort extends BaseSerialPort implements ZigBeePort {
       PortFlowControl flowControl,
       Runnable portUnavailableListener,
       Consumer<SerialPort> portOpenSuccessListener) {
+    this(coordinator, entityContext, serialPort, entityID, baudRate, flowControl, portUnavailableListener, portOpenSuccessListener,
+        DEFAULT_RX_BUFFER_LEN);
+  }
+
+  public ZigBeeSerialPort(String coordinator,
+      EntityContext entityContext,
+      SerialPort serialPort,
+      String entityID,
+      int baudRate,
+      PortFlowControl flowControl,
+      Runnable portUnavailableListener,
+      Consumer<SerialPort> portOpenSuccessListener,
+      int rxBufferSize) {
     super(coordinator, entityID, entityContext, baudRate, flowControl, portUnavailableListener, portOpenSuccessListener, log);
     this.serialPort = serialPort;
+    this.entityContext = entityContext;
+    this.buffer = new ByteRingBuffer(rxBufferSize);
   }
 
   @Override
@@ -68,48 +107,22 @@ public class ZigBeeSerialPort extends BaseSerialPort implements ZigBeePort {
 
   @Override
   public int read(int timeout) {
-    long endTime = System.currentTimeMillis() + timeout;
-
-    try {
-      while (System.currentTimeMillis() < endTime) {
-        synchronized (bufferSynchronisationObject) {
-          if (start != end) {
-            int value = buffer[start++];
-            if (start >= RX_BUFFER_LEN) {
-              start = 0;
-            }
-            return value;
-          }
-        }
-
-        synchronized (this) {
-          if (serialPort == null) {
-            return -1;
-          }
-
-          wait(endTime - System.currentTimeMillis());
-        }
-      }
+    if (serialPort == null) {
       return -1;
-    } catch (InterruptedException ignore) {
     }
-    return -1;
+    int value = buffer.read(timeout);
+    if (value != -1) {
+      metrics.onRead();
+    }
+    return value;
   }
 
   @Override
   protected void handleSerialEvent(byte[] buf) {
-    for (byte b : buf) {
-      buffer[end++] = b & 0xff;
-      if (end >= RX_BUFFER_LEN) {
-        end = 0;
-      }
-      if (end == start) {
-        log.warn("[{}]: Processing DATA_AVAILABLE event: Serial buffer overrun", entityID);
-        if (++start == RX_BUFFER_LEN) {
-          start = 0;
-        }
-
-      }
+    int dropped = buffer.write(buf);
+    metrics.onSerialEvent(buf.length, dropped);
+    if (dropped > 0) {
+      log.warn("[{}]: Processing DATA_AVAILABLE event: Serial buffer overrun. Dropped {} bytes", entityID, dropped);
     }
   }
 
@@ -118,22 +131,91 @@ public class ZigBeeSerialPort extends BaseSerialPort implements ZigBeePort {
     if (outputStream == null) {
       return;
     }
-    byte[] bytes = new byte[outArray.length];
-    int cnt = 0;
-    for (int value : outArray) {
-      bytes[cnt++] = (byte) value;
+    if (coalesceWrites) {
+      writeCoalesced(outArray);
+      return;
+    }
+    byte[] bytes = txBuffer.get();
+    if (bytes.length < outArray.length) {
+      bytes = new byte[Math.max(outArray.length, bytes.length * 2)];
+      txBuffer.set(bytes);
+    }
+    for (int i = 0; i < outArray.length; i++) {
+      bytes[i] = (byte) outArray[i];
+    }
+    writeToStream(bytes, outArray.length, 1);
+  }
+
+  /**
+   * Append frame to pending buffer. If no other thread currently writes - become the flusher and write all pending frames, including
+   * ones appended by other threads while previous write was in progress.
+   */
+  private void writeCoalesced(int[] outArray) {
+    synchronized (txSynchronisationObject) {
+      int required = txPendingLength + outArray.length;
+      if (txPending.length < required) {
+        byte[] pending = new byte[Math.max(required, txPending.length * 2)];
+        System.arraycopy(txPending, 0, pending, 0, txPendingLength);
+        txPending = pending;
+      }
+      for (int value : outArray) {
+        txPending[txPendingLength++] = (byte) value;
+      }
+      txPendingFrames++;
+      if (txFlushing) {
+        return;
+      }
+      txFlushing = true;
     }
     try {
-      outputStream.write(bytes);
+      while (true) {
+        byte[] sending;
+        int length;
+        int frames;
+        synchronized (txSynchronisationObject) {
+          if (txPendingLength == 0) {
+            txFlushing = false;
+            return;
+          }
+          sending = txPending;
+          length = txPendingLength;
+          frames = txPendingFrames;
+          txPending = txSending;
+          txPendingLength = 0;
+          txPendingFrames = 0;
+          txSending = sending;
+        }
+        writeToStream(sending, length, frames);
+      }
+    } catch (RuntimeException ex) {
+      synchronized (txSynchronisationObject) {
+        txFlushing = false;
+      }
+      throw ex;
+    }
+  }
+
+  private void writeToStream(byte[] bytes, int length, int frames) {
+    try {
+      outputStream.write(bytes, 0, length);
+      metrics.onWrite(length, frames);
     } catch (IOException e) {
+      long errors = metrics.onWriteError();
+      log.error("[{}]: Unable to write {} bytes to serial port. Total write errors: {}. Msg: {}", entityID, length, errors,
+          CommonUtils.getErrorMessage(e));
+      entityContext.event().fireEvent(TX_ERROR_EVENT_PREFIX + entityID, new StringType(CommonUtils.getErrorMessage(e)));
     }
   }
 
   @Override
   public void purgeRxBuffer() {
-    synchronized (bufferSynchronisationObject) {
-      start = 0;
-      end = 0;
-    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    // release transport receive thread parked in read(), it would wait for data of closed port until read timeout otherwise
+    buffer.close();
   }
 }
@@ -43,6 +43,7 @@ import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
 import org.homio.bundle.zigbee.SelectModelIdentifierDynamicLoader;
+import org.homio.bundle.zigbee.converter.ZclAttributeDiscoveryCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.homio.bundle.api.EntityContext;
@@ -301,6 +302,13 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
     return EntityContextSetting.getStatus(this, "fetch_basic", Status.UNKNOWN);
   }
 
+  @UIField(order = 9, hideInEdit = true, hideOnEmpty = true)
+  @UIFieldGroup("General")
+  @SuppressWarnings("unused")
+  public String getPollStatistic() {
+    return optService().map(service -> service.getPollMetrics().getSummary()).orElse(null);
+  }
+
   @UIContextMenuAction(value = "zigbee.action.poll_values", icon = "fas fa-download", iconColor = "#A939B7")
   public ActionResponseModel pollValues() {
     getService().checkOffline(true);
@@ -378,7 +386,8 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
     return endpoints.stream().filter(e -> e.getClusterId() == clusterId).collect(Collectors.toList());
   }
 
-  public void updateFromNode(ZigBeeNode node, EntityContext entityContext, Consumer<String> progressMessage) {
+  public void updateFromNode(ZigBeeNode node, EntityContext entityContext, ZclAttributeDiscoveryCache discoveryCache,
+      Consumer<String> progressMessage) {
     try {
       log.info("[{}]: Starting fetch info from ZigBeeNode: <{}>", getEntityID(), node.getIeeeAddress().toString());
       setFetchInfoStatus(Status.RUNNING, null);
@@ -387,7 +396,7 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
       progressMessage.accept("read ota cluster");
       updated |= updateFromOtaCluster(node);
       progressMessage.accept("read basic cluster");
-      updated |= updateFromBasicCluster(node, entityContext);
+      updated |= updateFromBasicCluster(node, entityContext, discoveryCache);
 
       log.info("[{}]: Finished fetch info from ZigBeeNode: <{}>", getEntityID(), node.getIeeeAddress());
       setFetchInfoStatus(Status.DONE, null);
@@ -401,7 +410,7 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
     }
   }
 
-  private boolean updateFromBasicCluster(ZigBeeNode node, EntityContext entityContext) {
+  private boolean updateFromBasicCluster(ZigBeeNode node, EntityContext entityContext, ZclAttributeDiscoveryCache discoveryCache) {
     boolean updated = false;
     ZclBasicCluster basicCluster = (ZclBasicCluster) node.getEndpoints().stream().map(
         ep -> ep.getInputCluster(ZclBasicCluster.CLUSTER_ID)).filter(Objects::nonNull).findFirst().orElse(null);
@@ -419,7 +428,7 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
     try {
       // Try to get the supported attributes, so we can reduce the number of attribute read requests
       int timeout = entityContext.setting().getValue(ZigBeeDiscoveryClusterTimeoutSetting.class);
-      basicCluster.discoverAttributes(false).get(timeout, TimeUnit.SECONDS);
+      discoveryCache.discoverAttributes(basicCluster, timeout);
       List<Integer> attributes =
           new ArrayList<>(
               Arrays.asList(
@@ -518,6 +527,30 @@ public class ZigBeeDeviceEntity extends ZigBeeDeviceBaseEntity<ZigBeeDeviceEntit
     return name;
   }
 
+  /**
+   * Fingerprint of endpoints, clusters, firmware and converters at time of last full node initialisation. 0 - unknown
+   */
+  @JsonIgnore
+  public long getEndpointFingerprint() {
+    return getJsonData("efp", 0L);
+  }
+
+  public void setEndpointFingerprint(long value) {
+    setJsonData("efp", value);
+  }
+
+  /**
+   * Time when binding and reporting were configured on device
+   */
+  @JsonIgnore
+  public long getBindingTime() {
+    return getJsonData("bt", 0L);
+  }
+
+  public void setBindingTime(long value) {
+    setJsonData("bt", value);
+  }
+
   public String createOrUpdateVarGroup(EntityContext entityContext) {
     String groupId = "zigbee-" + getIeeeAddress();
     String groupName = format("${%s} [${%s}]", getName(), StringUtils.defaultIfEmpty(getPlace(), "PLACE_NOT_SET"));
@@ -52,6 +52,7 @@ import org.homio.bundle.api.ui.field.selection.UIFieldStaticSelection;
 import org.homio.bundle.zigbee.service.ZigbeeEndpointService;
 import org.homio.bundle.zigbee.util.DeviceConfiguration;
 import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
 import org.homio.bundle.zigbee.util.DeviceConfigurations;
 import org.homio.bundle.api.util.Lang;
 
@@ -160,8 +161,14 @@ public class ZigBeeEndpointEntity extends PinBaseEntity<ZigBeeEndpointEntity, Zi
         return Optional.ofNullable(getLastState()).map(State::toString).orElse("");
     }
 
+    /**
+     * Store value without UI notification. See {@link #pushValue(State)}
+     */
     public void setValue(State state) {
         EntityContextSetting.setMemValue(this, "last", "Value", state);
+    }
+
+    public void pushValue(State state) {
         getEntityContext().ui().updateInnerSetItem(getOwnerTarget(), "endpointClusters", this.getEntityID(), "value", state.toString());
     }
 
@@ -265,6 +272,12 @@ public class ZigBeeEndpointEntity extends PinBaseEntity<ZigBeeEndpointEntity, Zi
         return false;
     }
 
+    @UIField(order = 104, disableEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("Reporting")
+    public String getReportingStatus() {
+        return optService().map(service -> service.getCluster().getReportingStatus()).orElse(null);
+    }
+
     // options.add(new ParameterOption("65535", "Use On/Off times"));
     @UIField(order = 200)
     @UIFieldShowOnCondition("return context.get('supportLevelControl') == 'true'")
@@ -529,6 +542,65 @@ public class ZigBeeEndpointEntity extends PinBaseEntity<ZigBeeEndpointEntity, Zi
         setJsonDataEnum("cc_ccm", value);
     }
 
+    @UIField(order = 700)
+    @UIFieldGroup(value = "Filter", order = 30, borderColor = "#7A3E8F")
+    public boolean getPublishOnChangeOnly() {
+        return getJsonData("f_ch", false);
+    }
+
+    public boolean setPublishOnChangeOnly(boolean value) {
+        if (getPublishOnChangeOnly() != value) {
+            setJsonData("f_ch", value);
+            return true;
+        }
+        return false;
+    }
+
+    @UIField(order = 701)
+    @UIFieldNumber(min = 0, max = 1000000)
+    @UIFieldGroup("Filter")
+    public double getDeadbandAbsolute() {
+        return getJsonData("f_db", 0D);
+    }
+
+    public boolean setDeadbandAbsolute(double value) {
+        if (getDeadbandAbsolute() != value) {
+            setJsonData("f_db", value);
+            return true;
+        }
+        return false;
+    }
+
+    @UIField(order = 702)
+    @UIFieldNumber(min = 0, max = 100)
+    @UIFieldGroup("Filter")
+    public double getDeadbandPercent() {
+        return getJsonData("f_dbp", 0D);
+    }
+
+    public boolean setDeadbandPercent(double value) {
+        if (getDeadbandPercent() != value) {
+            setJsonData("f_dbp", value);
+            return true;
+        }
+        return false;
+    }
+
+    @UIField(order = 703)
+    @UIFieldNumber(min = 0, max = 86400)
+    @UIFieldGroup("Filter")
+    public int getMinPublishInterval() {
+        return getJsonData("f_mi", 0);
+    }
+
+    public boolean setMinPublishInterval(int value) {
+        if (getMinPublishInterval() != value) {
+            setJsonData("f_mi", value);
+            return true;
+        }
+        return false;
+    }
+
     // configurable by cluster if analogue is true
     public int getReportingChangeMin() {
         return getJsonData("rt_ch_min", 0);
@@ -681,6 +753,21 @@ public class ZigBeeEndpointEntity extends PinBaseEntity<ZigBeeEndpointEntity, Zi
         return "[ieeeAddress='" + getIeeeAddress() + "', clusterId=" + getClusterId() + ", endpointId=" + getAddress() + ", clusterName='" + getClusterName() + "']";
     }
 
+    /**
+     * Use default reporting of device definition as initial reporting configuration of new endpoint
+     */
+    public void applyDefaultReporting(ReportSpec report) {
+        if (report.getMin() != null) {
+            setReportingTimeMin(report.getMin());
+        }
+        if (report.getMax() != null) {
+            setReportingTimeMax(report.getMax());
+        }
+        if (report.getChange() != null && isSupportAnalogue()) {
+            setReportingChange(report.getChange());
+        }
+    }
+
     public void setAnalogue(Double defaultChange, Integer minimumChange, Integer maximumChange) {
         setJsonData("analogue", true);
         if (minimumChange != getReportingChangeMin()) {
@@ -1,5 +1,7 @@
 package org.homio.bundle.zigbee.model;
 
+import static java.lang.String.format;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.zsmartsystems.zigbee.ExtendedPanId;
 import com.zsmartsystems.zigbee.ZigBeeNetworkManager;
@@ -11,6 +13,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
@@ -49,6 +52,11 @@ import org.homio.bundle.api.ui.field.inline.UIFieldInlineEntityWidth;
 import org.homio.bundle.api.ui.field.selection.UIFieldStaticSelection;
 import org.homio.bundle.api.ui.field.selection.UIFieldTreeNodeSelection;
 import org.homio.bundle.zigbee.handler.CC2531Service;
+import org.homio.bundle.zigbee.internal.BaseZigBeeDataStore;
+import org.homio.bundle.zigbee.internal.SerialPortMetrics;
+import org.homio.bundle.zigbee.internal.ZigBeeBinaryDataStore;
+import org.homio.bundle.zigbee.internal.ZigBeeDataStore;
+import org.homio.bundle.zigbee.internal.ZigBeeSerialPort;
 import org.homio.bundle.zigbee.service.ZigBeeCoordinatorService;
 
 @Log4j2
@@ -148,6 +156,27 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         setJsonData("fc", value);
     }
 
+    @UIField(order = 240)
+    @UIFieldStaticSelection(value = {"512", "1024", "2048", "4096", "8192"})
+    @UIFieldGroup("Port")
+    public int getRxBufferSize() {
+        return getJsonData("rxbs", ZigBeeSerialPort.DEFAULT_RX_BUFFER_LEN);
+    }
+
+    public void setRxBufferSize(int value) {
+        setJsonData("rxbs", value);
+    }
+
+    @UIField(order = 250)
+    @UIFieldGroup("Port")
+    public boolean isCoalesceTxFrames() {
+        return getJsonData("ctxf", false);
+    }
+
+    public void setCoalesceTxFrames(boolean value) {
+        setJsonData("ctxf", value);
+    }
+
     @UIField(order = 1, hideOnEmpty = true)
     @UIFieldTreeNodeSelection(rootPath = "zigbee", allowSelectDirs = true, allowSelectFiles = false)
     @UIFieldGroup(value = "Network", order = 10, borderColor = "#4f8a4e")
@@ -211,6 +240,46 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         setJsonData("lk", value);
     }
 
+    @UIField(order = 7)
+    @UIFieldGroup("Network")
+    public NetworkDataStoreType getNetworkDataStore() {
+        return getJsonDataEnum("nds", NetworkDataStoreType.Xml);
+    }
+
+    public void setNetworkDataStore(NetworkDataStoreType value) {
+        setJsonDataEnum("nds", value);
+    }
+
+    @UIField(order = 8)
+    @UIFieldStaticSelection({"0:Immediate", "1:1 Second", "5:5 Seconds", "10:10 Seconds", "30:30 Seconds"})
+    @UIFieldGroup("Network")
+    public int getNetworkStoreWriteDelay() {
+        return getJsonData("nswd", 5);
+    }
+
+    public void setNetworkStoreWriteDelay(int value) {
+        setJsonData("nswd", value);
+    }
+
+    @UIField(order = 9, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("Network")
+    public Integer getNetworkStoreQueue() {
+        return optService().map(ZigBeeCoordinatorService::getNetworkDataStore).map(BaseZigBeeDataStore::getPendingWrites).orElse(null);
+    }
+
+    @UIField(order = 10, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("Network")
+    public String getNetworkStoreLoadTime() {
+        return optService().map(ZigBeeCoordinatorService::getNetworkDataStore).filter(store -> store.getLoadTime() >= 0)
+                           .map(store -> format("%d nodes in %dms", store.getLoadedNodes(), store.getLoadTime())).orElse(null);
+    }
+
+    @UIField(order = 11, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("Network")
+    public String getEventQueue() {
+        return optService().map(service -> service.getEventDispatcher().getStatistic()).orElse(null);
+    }
+
     @UIField(order = 2)
     @UIFieldGroup("Discovery")
     public boolean isJoinDeviceDuringScanOnly() {
@@ -233,6 +302,12 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         setJsonData("mup", value);
     }
 
+    @UIField(order = 4, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("Discovery")
+    public String getNodeInterviews() {
+        return optService().map(service -> service.getInterviewQueue().getProgress()).orElse(null);
+    }
+
     @UIField(order = 1)
     @UIFieldStaticSelection({"-1:None", "0:Deny", "1:Insecure", "2:Secure", "3:InstallCode"})
     @UIFieldGroup(value = "Dongle", order = 20, borderColor = "#3E7792")
@@ -287,6 +362,43 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         setJsonData("lia", value);
     }
 
+    @UIField(order = 1, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup(value = "SerialLink", order = 30, borderColor = "#8C3E92")
+    public String getSerialRx() {
+        return getSerialPortSnapshot().map(s -> format("%d B (%.1f B/s)", s.getRxBytes(), s.getRxBytesPerSecond())).orElse(null);
+    }
+
+    @UIField(order = 2, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("SerialLink")
+    public String getSerialTx() {
+        return getSerialPortSnapshot().map(s -> format("%d B (%.1f B/s), %d frames (%.1f/s)",
+            s.getTxBytes(), s.getTxBytesPerSecond(), s.getTxFrames(), s.getTxFramesPerSecond())).orElse(null);
+    }
+
+    @UIField(order = 3, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("SerialLink")
+    public Long getSerialOverruns() {
+        return getSerialPortSnapshot().map(SerialPortMetrics.Snapshot::getOverruns).orElse(null);
+    }
+
+    @UIField(order = 4, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("SerialLink")
+    public Long getSerialTxErrors() {
+        return getSerialPortSnapshot().map(SerialPortMetrics.Snapshot::getTxErrors).orElse(null);
+    }
+
+    @UIField(order = 5, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("SerialLink")
+    public String getSerialReadLatency() {
+        return getSerialPortSnapshot().map(SerialPortMetrics.Snapshot::getReadLatencyHistogram).orElse(null);
+    }
+
+    @UIField(order = 6, hideInEdit = true, hideOnEmpty = true)
+    @UIFieldGroup("SerialLink")
+    public String getSerialMaxReadGap() {
+        return getSerialPortSnapshot().map(s -> s.getMaxEventToReadGapMicros() + "µs").orElse(null);
+    }
+
     @UIContextMenuAction(value = "zigbee.action.start_scan", icon = "fas fa-search-location", iconColor = "#899343")
     public ActionResponseModel scan() {
         getService().getDiscoveryService().startScan();
@@ -303,6 +415,10 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         fixEntity();
     }
 
+    private Optional<SerialPortMetrics.Snapshot> getSerialPortSnapshot() {
+        return optService().map(ZigBeeCoordinatorService::getSerialPortMetrics).map(SerialPortMetrics::snapshot);
+    }
+
     @JsonIgnore
     public Set<ZigBeeDeviceEntity> getOnlineDevices() {
         return getDevices().stream().filter(d -> d.getStatus() == Status.ONLINE).collect(Collectors.toSet());
@@ -423,6 +539,23 @@ public class ZigbeeCoordinatorEntity extends MicroControllerBaseEntity<ZigbeeCoo
         private final BiFunction<EntityContext, ZigbeeCoordinatorEntity, ZigBeeCoordinatorService> coordinatorSupplier;
     }
 
+    @RequiredArgsConstructor
+    public enum NetworkDataStoreType {
+        Xml(ZigBeeDataStore::new),
+        Binary(ZigBeeBinaryDataStore::new);
+
+        private final NetworkDataStoreFactory factory;
+
+        public BaseZigBeeDataStore create(String networkId, EntityContext entityContext, String entityID) {
+            return factory.create(networkId, entityContext, entityID);
+        }
+
+        private interface NetworkDataStoreFactory {
+
+            BaseZigBeeDataStore create(String networkId, EntityContext entityContext, String entityID);
+        }
+    }
+
     @Getter
     @NoArgsConstructor
     private static class ZigBeeCoordinatorDeviceEntity {
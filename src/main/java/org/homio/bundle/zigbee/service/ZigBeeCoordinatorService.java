@@ -26,6 +26,7 @@ import com.zsmartsystems.zigbee.transport.ZigBeeTransportFirmwareUpdate;
 import com.zsmartsystems.zigbee.transport.ZigBeeTransportTransmit;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclBasicCluster;
 import com.zsmartsystems.zigbee.zcl.clusters.ZclOtaUpgradeCluster;
+import com.zsmartsystems.zigbee.zdo.field.NodeDescriptor.LogicalType;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,12 +34,21 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.homio.bundle.zigbee.ZigBeeConsolePlugin;
+import org.homio.bundle.zigbee.ZigBeeSerialConsolePlugin;
+import org.homio.bundle.zigbee.converter.ZclAttributeDiscoveryCache;
+import org.homio.bundle.zigbee.converter.ZclAttributeReadBatcher;
 import org.homio.bundle.zigbee.converter.impl.ZigBeeChannelConverterFactory;
-import org.homio.bundle.zigbee.internal.ZigBeeDataStore;
+import org.homio.bundle.zigbee.internal.SerialPortMetrics;
+import org.homio.bundle.zigbee.internal.BaseZigBeeDataStore;
 import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
 import org.homio.bundle.zigbee.model.ZigbeeCoordinatorEntity;
 import org.jetbrains.annotations.NotNull;
@@ -67,6 +77,14 @@ public abstract class ZigBeeCoordinatorService
     ServiceInstance<ZigbeeCoordinatorEntity> {
 
   private static final int RECONNECT_RATE = 30;
+  /**
+   * Number of threads that run timers of all converters of coordinator
+   */
+  private static final int CONVERTER_TIMER_THREADS = 2;
+  /**
+   * Number of threads that bind clusters of all devices. Upper bound of ZigBeeBindMaxInFlightSetting
+   */
+  private static final int BINDING_THREADS = 4;
   protected final EntityContext entityContext;
   private final Object entityUpdateSync = new Object();
   private final Set<ZigBeeNetworkNodeListener> nodeListeners = new CopyOnWriteArraySet<>();
@@ -83,6 +101,18 @@ public abstract class ZigBeeCoordinatorService
 
   @Getter
   private final ZigBeeDiscoveryService discoveryService;
+  @Getter
+  private final ZigBeeInterviewQueue interviewQueue;
+  @Getter
+  private final ZigBeePollScheduler pollScheduler;
+  @Getter
+  private final ZigBeeUiUpdateCoalescer uiUpdateCoalescer;
+  @Getter
+  private final ZigBeeEventDispatcher eventDispatcher;
+  @Getter
+  private final ZigBeeDeviceIndex deviceIndex = new ZigBeeDeviceIndex();
+  @Getter
+  private final ZclAttributeDiscoveryCache attributeDiscoveryCache = new ZclAttributeDiscoveryCache();
 
   private final Object reconnectLock = new Object();
   private final String entityID;
@@ -95,8 +125,11 @@ public abstract class ZigBeeCoordinatorService
   private ExtendedPanId extendedPanId;
   private IeeeAddress nodeIeeeAddress;
   private ZigBeeNetworkManager networkManager;
-  private ZigBeeDataStore networkDataStore;
+  @Getter
+  private @Nullable BaseZigBeeDataStore networkDataStore;
   private TransportConfig transportConfig;
+  private @Nullable ScheduledThreadPoolExecutor converterScheduler;
+  private @Nullable ExecutorService bindingExecutor;
   /**
    * Set to true on startup if we want to reinitialize the network
    */
@@ -107,6 +140,8 @@ public abstract class ZigBeeCoordinatorService
   private ZigbeeCoordinatorEntity entity;
   @Getter
   private boolean initialized;
+  // coordinator holds shared attribute read batcher between initialize() and dispose()
+  private boolean readBatcherAcquired;
 
   @Getter
   private @Nullable Status desiredStatus;
@@ -119,6 +154,10 @@ public abstract class ZigBeeCoordinatorService
     this.channelFactory = entityContext.getBean(ZigBeeChannelConverterFactory.class);
     this.entityContext = entityContext;
 
+    this.interviewQueue = new ZigBeeInterviewQueue(entityContext, entityID);
+    this.pollScheduler = new ZigBeePollScheduler(entityContext, entityID);
+    this.uiUpdateCoalescer = new ZigBeeUiUpdateCoalescer(entityContext, entityID);
+    this.eventDispatcher = new ZigBeeEventDispatcher(entityID);
     this.discoveryService = new ZigBeeDiscoveryService(entityContext, channelFactory, entityID);
     this.discoveryService.setCoordinator(entity);
 
@@ -126,18 +165,22 @@ public abstract class ZigBeeCoordinatorService
 
     this.entityContext.ui().registerConsolePlugin("zigbee-console-" + entityID,
         new ZigBeeConsolePlugin(entityContext, this));
+    this.entityContext.ui().registerConsolePlugin("zigbee-serial-" + entityID,
+        new ZigBeeSerialConsolePlugin(entityContext, this));
 
-    this.entityContext.bgp().builder("zigbee-coordinator-" + entityID)
-                      .delay(Duration.ofMinutes(1)).interval(Duration.ofMinutes(1)).cancelOnError(false).execute(() -> {
-          for (ZigBeeDeviceService device : registeredDevices) {
-            device.checkOffline(false);
-          }
-        });
+    this.pollScheduler.start();
   }
 
   public void initialize() {
     initialized = false;
     log.info("[{}]: Initializing ZigBee network.", entityID);
+    pollScheduler.start();
+    synchronized (this) {
+      if (!readBatcherAcquired) {
+        ZclAttributeReadBatcher.acquire();
+        readBatcherAcquired = true;
+      }
+    }
 
     extendedPanId = StringUtils.isEmpty(entity.getExtendedPanId()) ? null : new ExtendedPanId(entity.getExtendedPanId());
 
@@ -173,6 +216,47 @@ public abstract class ZigBeeCoordinatorService
     // Can be overridden to provide dongle specific configuration
   }
 
+  /**
+   * Scheduler for short converter timers (level transitions, auto off, deferred color updates). Shared by all endpoints, so number of
+   * threads doesn't depend on number of devices. Converters should schedule via {@link
+   * org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter} to have timers cancelled on dispose.
+   */
+  public synchronized ScheduledExecutorService getConverterScheduler() {
+    if (converterScheduler == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      converterScheduler = new ScheduledThreadPoolExecutor(CONVERTER_TIMER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "zigbee-timer-" + entityID + "-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      converterScheduler.setRemoveOnCancelPolicy(true);
+    }
+    return converterScheduler;
+  }
+
+  /**
+   * Executor for device bind and Configure Reporting requests. Shared by all devices, so number of threads doesn't depend on number of
+   * devices initialised at once
+   */
+  public synchronized ExecutorService getBindingExecutor() {
+    if (bindingExecutor == null) {
+      AtomicInteger threadCount = new AtomicInteger();
+      bindingExecutor = Executors.newFixedThreadPool(BINDING_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "zigbee-bind-" + entityID + "-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return bindingExecutor;
+  }
+
+  /**
+   * Serial link metrics. Can be overridden by coordinators that communicate with dongle via {@link org.homio.bundle.zigbee.internal.ZigBeeSerialPort}
+   */
+  public @Nullable SerialPortMetrics getSerialPortMetrics() {
+    return null;
+  }
+
   public void dispose() {
     log.warn("[{}]: Dispose coordinator", entityID);
     // shutdown reconnect task
@@ -195,9 +279,33 @@ public abstract class ZigBeeCoordinatorService
       // Shut down the ZigBee library
       networkManager.shutdown();
     }
+    if (networkDataStore != null) {
+      networkDataStore.close();
+    }
+    // endpoint services are gone. Polling restarts on initialize()
+    pollScheduler.stop();
+    interviewQueue.reset();
+    eventDispatcher.clear();
+    uiUpdateCoalescer.dispose();
+    attributeDiscoveryCache.clear();
+    synchronized (this) {
+      if (converterScheduler != null) {
+        converterScheduler.shutdownNow();
+        converterScheduler = null;
+      }
+      if (bindingExecutor != null) {
+        bindingExecutor.shutdownNow();
+        bindingExecutor = null;
+      }
+      if (readBatcherAcquired) {
+        ZclAttributeReadBatcher.release();
+        readBatcherAcquired = false;
+      }
+    }
 
     this.entity.setStatus(Status.OFFLINE);
     entityContext.ui().unRegisterConsolePlugin("zigbee-console-" + entityID);
+    entityContext.ui().unRegisterConsolePlugin("zigbee-serial-" + entityID);
     entityContext.ui().sendWarningMessage("Dispose zigBee coordinator");
     log.warn("[{}]: ZigBee network closed.", entityID);
     this.initialized = false;
@@ -223,7 +331,8 @@ public abstract class ZigBeeCoordinatorService
     log.warn("[{}]: ZigBee use networkID: <{}>", entityID, networkId);
 
     networkManager = new ZigBeeNetworkManager(zigBeeTransport);
-    networkDataStore = new ZigBeeDataStore(networkId, entityContext, entityID);
+    networkDataStore = entity.getNetworkDataStore().create(networkId, entityContext, entityID);
+    networkDataStore.setWriteDelay(entity.getNetworkStoreWriteDelay() * 1000);
 
     // Configure the network manager
     networkManager.setNetworkDataStore(networkDataStore);
@@ -453,9 +562,7 @@ public abstract class ZigBeeCoordinatorService
       case ONLINE:
         entity.setStatusOnline();
 
-        for (ZigBeeDeviceEntity device : entity.getDevices()) {
-          device.getService().coordinatorOnline();
-        }
+        reinterviewDevices();
 
         if (reconnectPollingTimer != null) {
           reconnectPollingTimer.cancel();
@@ -478,6 +585,29 @@ public abstract class ZigBeeCoordinatorService
     }
   }
 
+  /**
+   * Queue re-interview of all devices after coordinator comes online. Mains powered routers go first, sleepy end devices are deferred
+   * until they check in. Admission of interviews is limited by {@link ZigBeeInterviewQueue}
+   */
+  private void reinterviewDevices() {
+    int deferred = 0;
+    for (ZigBeeDeviceEntity device : entity.getDevices()) {
+      ZigBeeNode node = getNode(new IeeeAddress(device.getIeeeAddress()));
+      if (node == null || node.getNodeDescriptor() == null) {
+        device.getService().coordinatorOnline();
+      } else if (node.getLogicalType() == LogicalType.ROUTER) {
+        device.getService().coordinatorOnline(ZigBeeInterviewQueue.PRIORITY_ROUTER);
+      } else if (node.isReceiverOnWhenIdle()) {
+        device.getService().coordinatorOnline();
+      } else {
+        device.getService().deferCoordinatorOnline();
+        deferred++;
+      }
+    }
+    log.info("[{}]: Queued re-interview of {} devices. Deferred sleepy devices: {}", entityID,
+        entity.getDevices().size() - deferred, deferred);
+  }
+
   private void startReconnectJobIfNotRunning() {
     if (reconnectPollingTimer != null) {
       return;
@@ -646,6 +776,8 @@ public abstract class ZigBeeCoordinatorService
   @Override
   public void destroy() {
     this.dispose();
+    this.pollScheduler.stop();
+    this.eventDispatcher.shutdown();
     // fires when removing coordinator.
     if (networkDataStore != null) {
       networkDataStore.delete();
@@ -730,6 +862,9 @@ public abstract class ZigBeeCoordinatorService
           !Objects.equals(newEntity.getNetworkKey(), entity.getNetworkKey()) ||
           newEntity.getPortBaud() != entity.getPortBaud() ||
           newEntity.getFlowControl() != entity.getFlowControl() ||
+          newEntity.getRxBufferSize() != entity.getRxBufferSize() ||
+          newEntity.isCoalesceTxFrames() != entity.isCoalesceTxFrames() ||
+          newEntity.getNetworkDataStore() != entity.getNetworkDataStore() ||
           newEntity.getTxPower() != entity.getTxPower() ||
           !newEntity.getNetworkId().equals(entity.getNetworkId()) ||
           !newEntity.getNetworkKey().equals(entity.getNetworkKey()) ||
@@ -738,6 +873,10 @@ public abstract class ZigBeeCoordinatorService
         reinitialize = true;
       }
 
+      if (newEntity.getNetworkStoreWriteDelay() != entity.getNetworkStoreWriteDelay() && networkDataStore != null) {
+        networkDataStore.setWriteDelay(newEntity.getNetworkStoreWriteDelay() * 1000);
+      }
+
       if (newEntity.getMeshUpdatePeriod() != entity.getMeshUpdatePeriod()) {
         ZigBeeDiscoveryExtension extension = (ZigBeeDiscoveryExtension) networkManager
             .getExtension(ZigBeeDiscoveryExtension.class);
@@ -775,6 +914,7 @@ public abstract class ZigBeeCoordinatorService
   public void dispose(ZigBeeDeviceService service) {
     // unregister service from alive tracking
     this.registeredDevices.remove(service);
+    this.deviceIndex.removeDevice(service);
 
     // removeNetworkNodeListener
     nodeListeners.remove(service);
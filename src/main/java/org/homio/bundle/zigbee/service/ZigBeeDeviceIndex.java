@@ -0,0 +1,127 @@
+package org.homio.bundle.zigbee.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory index of coordinator devices and endpoints for UI option lookups. Maintained incrementally when endpoint services are created,
+ * updated and destroyed and when devices are initialised or disposed, so lookups cost O(result) instead of scanning all endpoints.
+ * <p>
+ * Device online status isn't indexed, it's checked on found results only.
+ */
+public class ZigBeeDeviceIndex {
+
+  // guarded by this
+  private final Map<Integer, Set<ZigbeeEndpointService>> endpointsByClusterId = new HashMap<>();
+  // by endpoint name, same match as endpoint name filter. Guarded by this
+  private final Map<String, Set<ZigbeeEndpointService>> endpointsByName = new HashMap<>();
+  // name under which endpoint is indexed in endpointsByName. Guarded by this
+  private final Map<ZigbeeEndpointService, String> endpointNames = new HashMap<>();
+  // guarded by this
+  private final NavigableMap<String, Set<ZigBeeDeviceService>> devicesByModel = new TreeMap<>();
+  // guarded by this
+  private final Map<ZigBeeDeviceService, String> deviceModels = new HashMap<>();
+
+  public synchronized void addEndpoint(ZigbeeEndpointService service) {
+    ZigBeeBaseChannelConverter converter = service.getCluster();
+    endpointsByClusterId.computeIfAbsent(converter.getClientCluster(), id -> new LinkedHashSet<>()).add(service);
+    for (int clusterId : converter.getAdditionalClientClusters()) {
+      endpointsByClusterId.computeIfAbsent(clusterId, id -> new LinkedHashSet<>()).add(service);
+    }
+    updateEndpoint(service);
+  }
+
+  /**
+   * Reindex endpoint names. Endpoint name may be changed by user
+   */
+  public synchronized void updateEndpoint(ZigbeeEndpointService service) {
+    removeEndpointNames(service);
+    String name = service.getEntity().getName();
+    if (name != null) {
+      endpointsByName.computeIfAbsent(name, key -> new LinkedHashSet<>()).add(service);
+      endpointNames.put(service, name);
+    }
+  }
+
+  public synchronized void removeEndpoint(ZigbeeEndpointService service) {
+    ZigBeeBaseChannelConverter converter = service.getCluster();
+    removeFrom(endpointsByClusterId, converter.getClientCluster(), service);
+    for (int clusterId : converter.getAdditionalClientClusters()) {
+      removeFrom(endpointsByClusterId, clusterId, service);
+    }
+    removeEndpointNames(service);
+  }
+
+  /**
+   * Add device or reindex its model identifier
+   */
+  public synchronized void updateDevice(ZigBeeDeviceService service) {
+    String model = service.getEntity().getModelIdentifier();
+    String oldModel = deviceModels.get(service);
+    if (deviceModels.containsKey(service) && Objects.equals(model, oldModel)) {
+      return;
+    }
+    removeDevice(service);
+    deviceModels.put(service, model);
+    if (model != null) {
+      devicesByModel.computeIfAbsent(model, key -> new LinkedHashSet<>()).add(service);
+    }
+  }
+
+  public synchronized void removeDevice(ZigBeeDeviceService service) {
+    if (deviceModels.containsKey(service)) {
+      String model = deviceModels.remove(service);
+      if (model != null) {
+        removeFrom(devicesByModel, model, service);
+      }
+    }
+  }
+
+  public synchronized List<ZigbeeEndpointService> getEndpointsByClusterId(int clusterId) {
+    return copy(endpointsByClusterId.get(clusterId));
+  }
+
+  public synchronized List<ZigbeeEndpointService> getEndpointsByName(String name) {
+    return copy(endpointsByName.get(name));
+  }
+
+  /**
+   * @return devices which model identifier starts with prefix
+   */
+  public synchronized List<ZigBeeDeviceService> getDevicesByModelPrefix(String prefix) {
+    List<ZigBeeDeviceService> result = new ArrayList<>();
+    for (Set<ZigBeeDeviceService> devices : devicesByModel.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+      result.addAll(devices);
+    }
+    return result;
+  }
+
+  private void removeEndpointNames(ZigbeeEndpointService service) {
+    String name = endpointNames.remove(service);
+    if (name != null) {
+      removeFrom(endpointsByName, name, service);
+    }
+  }
+
+  private static <K, V> void removeFrom(Map<K, Set<V>> map, K key, V value) {
+    Set<V> values = map.get(key);
+    if (values != null && values.remove(value) && values.isEmpty()) {
+      map.remove(key);
+    }
+  }
+
+  private static <T> List<T> copy(@Nullable Collection<T> values) {
+    return values == null ? Collections.emptyList() : new ArrayList<>(values);
+  }
+}
@@ -1,5 +1,7 @@
 package org.homio.bundle.zigbee.service;
 
+import static com.zsmartsystems.zigbee.zcl.clusters.ZclBasicCluster.ATTR_APPLICATIONVERSION;
+import static com.zsmartsystems.zigbee.zcl.clusters.ZclBasicCluster.ATTR_DATECODE;
 import static org.apache.commons.lang3.ObjectUtils.isNotEmpty;
 
 import com.zsmartsystems.zigbee.IeeeAddress;
@@ -11,27 +13,38 @@ import com.zsmartsystems.zigbee.ZigBeeNode.ZigBeeNodeState;
 import com.zsmartsystems.zigbee.ZigBeeNodeStatus;
 import com.zsmartsystems.zigbee.ZigBeeProfileType;
 import com.zsmartsystems.zigbee.ZigBeeStatus;
+import com.zsmartsystems.zigbee.zcl.clusters.ZclBasicCluster;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.zigbee.converter.ZclBindingPlanner;
 import org.homio.bundle.zigbee.converter.ZigBeeBaseChannelConverter;
 import org.homio.bundle.zigbee.converter.impl.ZigBeeChannelConverterFactory;
 import org.homio.bundle.zigbee.model.ZigBeeDeviceEntity;
 import org.homio.bundle.zigbee.model.ZigBeeEndpointEntity;
+import org.homio.bundle.zigbee.setting.ZigBeeBindMaxInFlightSetting;
+import org.homio.bundle.zigbee.setting.ZigBeeDiscoveryClusterTimeoutSetting;
+import org.homio.bundle.zigbee.setting.ZigBeeRebindIntervalSetting;
 import org.homio.bundle.zigbee.util.DeviceConfiguration;
 import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
 import org.homio.bundle.zigbee.util.DeviceConfigurations;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.EntityContextBGP.ThreadContext;
@@ -55,12 +68,24 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
   private final ZigBeeChannelConverterFactory zigBeeChannelConverterFactory;
   private final String entityID;
   private final AtomicInteger initializeZigBeeNodeRequests = new AtomicInteger(0);
+  private final ZigBeePollMetrics pollMetrics = new ZigBeePollMetrics();
   private ZigBeeDeviceEntity entity;
   private double progress = 0;
   private String progressMsg = "";
 
-  private ThreadContext<Void> nodeInitThreadContext;
+  // node initialisation queued or running. Guarded by initializeSync
+  private boolean nodeInitScheduled;
+  // launched node initialisation job. Guarded by initializeSync
+  private @Nullable ThreadContext<Void> nodeInitJob;
+  // ask network manager to rediscover node before next initialisation pass
+  private volatile boolean rediscoverRequested;
+  // sleepy node re-interview waits until node checks in
+  private volatile boolean reinterviewDeferred;
   private int discoveredEndpointsHash;
+  // device definition hash on last initialisation
+  private volatile int initializedDefinitionHash;
+  // device definition changed since last initialisation, i.e. user added definition of this model
+  private volatile boolean definitionChanged;
   private ProgressBar initProgressBar;
   private String deviceVariableGroup;
 
@@ -101,22 +126,36 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
   }
 
   /**
-   * synchronized to handle from multiple threads
+   * synchronized to handle from multiple threads. Initialisation starts when coordinator interview queue admits it
    */
   public void initializeZigBeeNode() {
+    initializeZigBeeNode(ZigBeeInterviewQueue.PRIORITY_DEFAULT);
+  }
+
+  private void initializeZigBeeNode(int priority) {
     synchronized (initializeSync) {
-      if (this.nodeInitThreadContext == null || this.nodeInitThreadContext.isStopped()) {
-        this.nodeInitThreadContext = entityContext.bgp().runWithProgress("zigbee-node-init-" + this.nodeIeeeAddress, false, progressBar -> {
-          try {
-            doNodeInitialisation(progressBar);
-          } catch (Exception ex) {
-            log.error("[{}]: Unknown error during node initialization", entityID, ex);
-          } finally {
-            while (this.initializeZigBeeNodeRequests.get() > 0) {
-              this.initializeZigBeeNodeRequests.set(0);
+      // job cancelled before start never resets scheduled flag
+      if (!this.nodeInitScheduled || (this.nodeInitJob != null && this.nodeInitJob.isStopped())) {
+        this.nodeInitScheduled = true;
+        this.nodeInitJob = null;
+        // devices without answer for longer time go first
+        coordinatorService.getInterviewQueue().submit(priority, entity.getLastAnswerFromEndpoints(), done -> {
+          ThreadContext<Void> job = entityContext.bgp().runWithProgress("zigbee-node-init-" + this.nodeIeeeAddress, false, progressBar -> {
+            try {
               doNodeInitialisation(progressBar);
+            } catch (Exception ex) {
+              log.error("[{}]: Unknown error during node initialization", entityID, ex);
+            } finally {
+              while (hasPendingInitializeRequests()) {
+                doNodeInitialisation(progressBar);
+              }
+              done.run();
             }
+          });
+          synchronized (initializeSync) {
+            this.nodeInitJob = job;
           }
+          return job;
         });
       } else {
         log.info("[{}]: Node {} initialization already started", entityID, nodeIeeeAddress);
@@ -125,9 +164,26 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     }
   }
 
+  /**
+   * Reset requests received while initialisation was running. Mark initialisation finished if no requests
+   */
+  private boolean hasPendingInitializeRequests() {
+    synchronized (initializeSync) {
+      if (this.initializeZigBeeNodeRequests.getAndSet(0) > 0) {
+        return true;
+      }
+      this.nodeInitScheduled = false;
+      return false;
+    }
+  }
+
   private void doNodeInitialisation(ProgressBar progressBar) {
     try {
       this.initProgressBar = progressBar;
+      if (this.rediscoverRequested) {
+        this.rediscoverRequested = false;
+        this.coordinatorService.rediscoverNode(nodeIeeeAddress);
+      }
       ZigBeeNode node = this.coordinatorService.getNode(nodeIeeeAddress);
       if (node == null) {
         log.debug("[{}]: Node not found {}", entityID, nodeIeeeAddress);
@@ -135,13 +191,16 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
       }
 
       if (this.entity.getStatus().isOnline() && node.isDiscovered() && node.getNodeState() == ZigBeeNodeState.ONLINE
-          && this.discoveredEndpointsHash == this.calcEndpointHash(node.getEndpoints())) {
+          && this.discoveredEndpointsHash == this.calcEndpointHash(node.getEndpoints()) && !this.definitionChanged) {
         updateEntityNode(node, false); // check for model if some internal state has been changed
         log.debug("Ignore initialize node with same requested node state");
         return;
       }
 
       this.discoveredEndpointsHash = this.calcEndpointHash(node.getEndpoints());
+      this.definitionChanged = false;
+      // new initialisation pass must not reuse discovery results of previous one
+      node.getEndpoints().forEach(coordinatorService.getAttributeDiscoveryCache()::invalidate);
       log.info("[{}]: Initialization zigBee device {}", entityID, nodeIeeeAddress);
       this.entity.setStatus(Status.INITIALIZE, null);
       this.entity.setNodeInitializationStatus(Status.INITIALIZE);
@@ -157,36 +216,41 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
       log.info("[{}]: Start initialising ZigBee channels {}", entityID, nodeIeeeAddress);
       log.info("[{}]: Initial endpoints: {}", entityID, node.getEndpoints().stream().map(ZigBeeEndpoint::toString).collect(Collectors.joining("\n")));
 
-      addToProgress(1, "Fetch node info");
-      updateEntityNode(node, true);
-      addToProgress(1, "Create missing endpoints");
-
-      if (isNotEmpty(entity.getModelIdentifier())) {
-        createMissingEndpointInZigBeeNetwork(node);
-      }
+      refreshFirmwareInfo(node);
+      if (isFingerprintValid(node) && reattachConverters()) {
+        log.info("[{}]: Node fingerprint not changed. Skip node interview {}", entityID, nodeIeeeAddress);
+        if (entity.updateFromNodeDescriptor(node)) {
+          entityContext.save(entity);
+        }
+        addToProgress(30, "Re-attach converters");
+        initializeConverters();
+      } else {
+        addToProgress(1, "Fetch node info");
+        updateEntityNode(node, true);
+        addToProgress(1, "Create missing endpoints");
 
-      createDynamicEndpoints();
-      // Progress = 30
+        if (isNotEmpty(entity.getModelIdentifier())) {
+          createMissingEndpointInZigBeeNetwork(node);
+        }
 
-      double initChannelDelta = 60D / entity.getEndpoints().size();
-      initializeZigBeeChannelConverters(entity.getEndpoints(),
-          message -> addToProgress(initChannelDelta, message),
-          message -> addToProgress(0, message));
+        createDynamicEndpoints();
+        // Progress = 30
 
-      entity.setLastAnswerFromEndpoints(System.currentTimeMillis());
-      coordinatorService.getRegisteredDevices().add(this);
+        initializeConverters();
 
-      // Update the binding table.
-      // We're not doing anything with the information here, but we want it up to date, so it's
-      // ready for use later.
-      try {
-        addToProgress(5, "init binding table");
-        ZigBeeStatus zigBeeStatus = node.updateBindingTable().get();
-        if (zigBeeStatus != ZigBeeStatus.SUCCESS) {
-          log.debug("[{}]: Error getting binding table. {}. Actual status: <{}>", entityID, nodeIeeeAddress, zigBeeStatus);
+        // Update the binding table.
+        // We're not doing anything with the information here, but we want it up to date, so it's
+        // ready for use later.
+        try {
+          addToProgress(5, "init binding table");
+          ZigBeeStatus zigBeeStatus = node.updateBindingTable().get();
+          if (zigBeeStatus != ZigBeeStatus.SUCCESS) {
+            log.debug("[{}]: Error getting binding table. {}. Actual status: <{}>", entityID, nodeIeeeAddress, zigBeeStatus);
+          }
+        } catch (Exception e) {
+          log.error("[{}]: Exception getting binding table {}", entityID, nodeIeeeAddress, e);
         }
-      } catch (Exception e) {
-        log.error("[{}]: Exception getting binding table {}", entityID, nodeIeeeAddress, e);
+        storeFingerprint(node);
       }
 
       entity.setNodeInitializationStatus(Status.DONE);
@@ -203,22 +267,104 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     }
   }
 
+  private void initializeConverters() {
+    double initChannelDelta = 60D / entity.getEndpoints().size();
+    initializeZigBeeChannelConverters(entity.getEndpoints(),
+        message -> addToProgress(initChannelDelta, message),
+        message -> addToProgress(0, message));
+
+    entity.setLastAnswerFromEndpoints(System.currentTimeMillis());
+    initializedDefinitionHash = getDefinitionHash();
+    coordinatorService.getRegisteredDevices().add(this);
+    coordinatorService.getDeviceIndex().updateDevice(this);
+  }
+
+  /**
+   * Check if node endpoints, firmware and converters are same as on last full initialisation and binding is not too old
+   */
+  private boolean isFingerprintValid(ZigBeeNode node) {
+    long rebindInterval = TimeUnit.HOURS.toMillis(entityContext.setting().getValue(ZigBeeRebindIntervalSetting.class));
+    return entity.getEndpointFingerprint() != 0
+        && !entity.getEndpoints().isEmpty()
+        && System.currentTimeMillis() - entity.getBindingTime() < rebindInterval
+        && entity.getEndpointFingerprint() == calcFingerprint(node);
+  }
+
+  /**
+   * Read application version and date code from device, so fingerprint changes after firmware update. Stored values are kept if
+   * device doesn't answer (i.e. sleeping end device)
+   */
+  private void refreshFirmwareInfo(ZigBeeNode node) {
+    ZclBasicCluster basicCluster = (ZclBasicCluster) node.getEndpoints().stream().map(
+        ep -> ep.getInputCluster(ZclBasicCluster.CLUSTER_ID)).filter(Objects::nonNull).findFirst().orElse(null);
+    if (basicCluster == null || entity.getEndpointFingerprint() == 0) {
+      return; // full interview reads basic cluster anyway
+    }
+    try {
+      int timeout = entityContext.setting().getValue(ZigBeeDiscoveryClusterTimeoutSetting.class);
+      basicCluster.readAttributes(List.of(ATTR_APPLICATIONVERSION, ATTR_DATECODE)).get(timeout, TimeUnit.SECONDS);
+      Integer appVersion = (Integer) basicCluster.getAttribute(ATTR_APPLICATIONVERSION).readValue(Long.MAX_VALUE);
+      String dateCode = (String) basicCluster.getAttribute(ATTR_DATECODE).readValue(Long.MAX_VALUE);
+      boolean changed = appVersion != null && entity.setAppVersion(appVersion);
+      changed |= dateCode != null && entity.setDateCode(dateCode);
+      if (changed) {
+        log.info("[{}]: Firmware of node {} changed. App version: {}. Date code: {}", entityID, nodeIeeeAddress, appVersion, dateCode);
+      }
+    } catch (Exception ex) {
+      log.debug("[{}]: Unable to read firmware info of node {}. Msg: {}", entityID, nodeIeeeAddress, CommonUtils.getErrorMessage(ex));
+    }
+  }
+
+  /**
+   * Create converters of already known endpoints without probing device
+   *
+   * @return false if any endpoint has no converter
+   */
+  private boolean reattachConverters() {
+    Map<Integer, List<ZigBeeBaseChannelConverter>> converters = new HashMap<>();
+    for (ZigBeeEndpointEntity endpoint : entity.getEndpoints()) {
+      if (!EntityService.entityToService.containsKey(endpoint.getEntityID())) {
+        ZigBeeBaseChannelConverter converter = zigBeeChannelConverterFactory.createConverter(endpoint.getClusterName());
+        if (converter == null) {
+          log.warn("[{}]: Unable to find converter '{}'. Run full node interview {}", entityID, endpoint.getClusterName(), nodeIeeeAddress);
+          return false;
+        }
+        converter.setReuseBinding(true);
+        converters.computeIfAbsent(endpoint.getAddress(), address -> new ArrayList<>()).add(converter);
+      }
+    }
+    converters.forEach(this::createEndpoints);
+    return true;
+  }
+
+  /**
+   * Persist fingerprint if all converters bound successfully, so next initialisation may skip interview
+   */
+  private void storeFingerprint(ZigBeeNode node) {
+    boolean bindFailed = entity.getEndpoints().stream().map(ZigBeeEndpointEntity::getBindStatus)
+                               .anyMatch(status -> status == Status.ERROR || status == Status.OFFLINE);
+    entity.setEndpointFingerprint(bindFailed ? 0 : calcFingerprint(node));
+    entity.setBindingTime(System.currentTimeMillis());
+    entityContext.save(entity);
+  }
+
   private void updateEntityNode(ZigBeeNode node, boolean addToProgress) {
     try {
-      entity.updateFromNode(node, entityContext, message -> {
+      entity.updateFromNode(node, entityContext, coordinatorService.getAttributeDiscoveryCache(), message -> {
         if (addToProgress) {addToProgress(1, message);}
       });
     } catch (OptimisticLockingFailureException ex) {
       // try update entity and call updateFromNode again
       progress -= 2;
       entity = entityContext.getEntity(entityID);
-      entity.updateFromNode(node, entityContext, message -> {
+      entity.updateFromNode(node, entityContext, coordinatorService.getAttributeDiscoveryCache(), message -> {
         if (addToProgress) {addToProgress(1, message);}
       });
     }
   }
 
-  private void addToProgress(double value, String message) {
+  // called from binding and discovery threads
+  private synchronized void addToProgress(double value, String message) {
     progress += value;
     progressMsg = message;
     if (progress >= 100) {
@@ -229,7 +375,7 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     entityContext.ui().updateItem(getEntity(), "initProgress", entity.getInitProgress());
   }
 
-  private void createDynamicEndpoints() {
+  private void createDynamicEndpoints() throws InterruptedException {
     // Dynamically create the zigBeeConverterEndpoints from the device
     // Process all the endpoints for this device and add all zigBeeConverterEndpoints as derived
     // from the supported clusters
@@ -237,13 +383,11 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     Collection<ZigBeeEndpoint> nodeEndpoints = this.coordinatorService.getNodeEndpoints(nodeIeeeAddress);
     // +1 because we check IAS cluster separately
     double delta = 25D / (nodeEndpoints.size() * (zigBeeChannelConverterFactory.getConverterCount() + 4));
-    for (ZigBeeEndpoint endpoint : nodeEndpoints) {
-      Collection<ZigBeeBaseChannelConverter> matchConverters = zigBeeChannelConverterFactory
-          .findAllMatchConverters(endpoint, entityID, entityContext,
-              message -> addToProgress(delta, message),
-              message -> addToProgress(0, message));
-      createEndpoints(endpoint.getEndpointId(), matchConverters);
-    }
+    Map<Integer, Collection<ZigBeeBaseChannelConverter>> matchConverters = zigBeeChannelConverterFactory
+        .findAllMatchConverters(nodeEndpoints, entityID, entityContext, coordinatorService.getAttributeDiscoveryCache(),
+            message -> addToProgress(delta, message),
+            message -> addToProgress(0, message));
+    matchConverters.forEach(this::createEndpoints);
 
     log.info("[{}]: Dynamically created {} zigBeeConverterEndpoints {}", entityID, entity.getEndpoints().size(), nodeIeeeAddress);
   }
@@ -297,6 +441,7 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
         endpointEntity.setOwner(entity);
 
         cluster.configureNewEndpointEntity(endpointEntity);
+        endpointDefinition.map(EndpointDefinition::getReport).ifPresent(endpointEntity::applyDefaultReporting);
         endpointEntity = entityContext.save(endpointEntity);
       }
 
@@ -308,25 +453,51 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     }
   }
 
+  /**
+   * Initialize converters in 3 steps: initialize converters which add their binding and reporting into shared planner, execute planner
+   * (one bind per cluster and merged Configure Reporting commands), and refresh attributes of initialized converters.
+   */
   private void initializeZigBeeChannelConverters(Collection<ZigBeeEndpointEntity> endpoints,
       Consumer<String> runUnit, Consumer<String> progressMessage) {
+    ZclBindingPlanner planner = new ZclBindingPlanner(entityID);
+    List<ZigBeeEndpointEntity> initializedEndpoints = new ArrayList<>();
     for (ZigBeeEndpointEntity endpoint : endpoints) {
       try {
         endpoint.setStatus(Status.INITIALIZE);
         ZigBeeBaseChannelConverter cluster = endpoint.getService().getCluster();
         runUnit.accept("ep[" + endpoint.getAddress() + "]" + endpoint.getClusterName() + ":init cluster");
 
+        cluster.setBindingPlanner(planner);
         try {
           cluster.initialize(message -> progressMessage.accept("ep[" + endpoint.getAddress() + "]" +
               endpoint.getClusterName() + ":" + message));
         } catch (Exception ex) {
           log.warn("[{}]: Failed to initialize converter {}. {}", entityID, endpoint, CommonUtils.getErrorMessage(ex));
           continue;
+        } finally {
+          cluster.setBindingPlanner(null);
         }
+        initializedEndpoints.add(endpoint);
+      } catch (Exception ex) {
+        endpoint.setStatusError(ex);
+      }
+    }
 
-        cluster.fireRefreshAttribute(progressMessage);
+    try {
+      planner.execute(coordinatorService.getBindingExecutor(), coordinatorService.getLocalIeeeAddress(),
+          coordinatorService.getLocalEndpointId(ZigBeeProfileType.ZIGBEE_HOME_AUTOMATION),
+          entityContext.setting().getValue(ZigBeeBindMaxInFlightSetting.class), progressMessage);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return;
+    }
 
+    for (ZigBeeEndpointEntity endpoint : initializedEndpoints) {
+      try {
+        endpoint.getService().getCluster().fireRefreshAttribute(progressMessage);
         endpoint.setStatusOnline();
+        // binding result may shorten polling interval
+        coordinatorService.getPollScheduler().schedule(endpoint.getService());
       } catch (Exception ex) {
         endpoint.setStatusError(ex);
       }
@@ -357,6 +528,11 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     if (!nodeIeeeAddress.equals(ieeeAddress)) {
       return;
     }
+    if (reinterviewDeferred) {
+      log.info("[{}]: Sleepy node {} checked in. Start deferred re-interview", entityID, nodeIeeeAddress);
+      coordinatorOnline();
+      return;
+    }
     // Use this to update channel information - e.g. bulb state will likely change when the device
     // was powered off/on.
     for (ZigBeeEndpointEntity endpoint : getEntity().getEndpoints()) {
@@ -376,6 +552,10 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
       return;
     }
     log.debug("[{}]: Node {} has been updated. Fire initialization...", entityID, nodeIeeeAddress);
+    if (reinterviewDeferred) {
+      coordinatorOnline();
+      return;
+    }
     initializeZigBeeNode();
   }
 
@@ -390,6 +570,10 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
   @Override
   public boolean entityUpdated(@NotNull ZigBeeDeviceEntity entity) {
     this.entity = entity;
+    // model identifier may be changed by user
+    if (coordinatorService.getRegisteredDevices().contains(this)) {
+      coordinatorService.getDeviceIndex().updateDevice(this);
+    }
     return false;
   }
 
@@ -420,14 +604,20 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     return entityID.hashCode();
   }
 
-  public void checkOffline(boolean force) {
+  /**
+   * Set device to offline if all endpoints offline. Called when endpoint goes offline
+   */
+  public void checkAlive() {
     if (this.entity.getStatus() == Status.ONLINE) {
-      // set device to offline of all endpoint offline
       if (entity.getEndpoints().stream().allMatch(e -> e.getStatus() == Status.OFFLINE)) {
         log.warn("[{}]: Timeout has been reached for zigBeeDevice {}", entityID, nodeIeeeAddress);
         entity.setStatus(Status.OFFLINE, "zigbee.error.alive_timeout_reached");
       }
     }
+  }
+
+  public void checkOffline(boolean force) {
+    checkAlive();
     if (force || this.entity.getStatus().isOnline()) {
       // check if cluster need refresh attribute.
       // if 10+ polls and no answer from attribute - set endpoint to OFFLINE status
@@ -437,15 +627,52 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
     }
   }
 
+  /**
+   * Called when new version of device definitions has been activated. Re-initialise only this device and only if its definition
+   * changed. Changed definition changes fingerprint, so missing endpoints are created without re-interview of other devices
+   */
+  public void definitionsReloaded() {
+    if (initializedDefinitionHash != getDefinitionHash()) {
+      log.info("[{}]: Device definition of model '{}' changed. Re-initialise device {}", entityID, entity.getModelIdentifier(), nodeIeeeAddress);
+      this.definitionChanged = true;
+      if (!reinterviewDeferred) {
+        initializeZigBeeNode();
+      }
+    }
+  }
+
+  /**
+   * @return content hash of device definition of active registry version or 0 if model has no definition
+   */
+  public int getDefinitionHash() {
+    return DeviceConfigurations.getDeviceDefinition(entity.getModelIdentifier()).map(DeviceConfiguration::getDefinitionHash).orElse(0);
+  }
+
   public void coordinatorOffline() {
     this.entity.setStatus(Status.OFFLINE);
     this.entity.setNodeInitializationStatus(Status.UNKNOWN);
   }
 
   public void coordinatorOnline() {
+    coordinatorOnline(ZigBeeInterviewQueue.PRIORITY_DEFAULT);
+  }
+
+  /**
+   * Queue node rediscovery and initialisation. Rediscovery runs when interview queue admits node
+   */
+  public void coordinatorOnline(int priority) {
     log.info("[{}]: Fire discovery node: {}", entityID, nodeIeeeAddress);
-    getCoordinatorService().rediscoverNode(nodeIeeeAddress);
-    initializeZigBeeNode();
+    this.reinterviewDeferred = false;
+    this.rediscoverRequested = true;
+    initializeZigBeeNode(priority);
+  }
+
+  /**
+   * Sleepy end devices don't answer until they wake up, so their re-interview waits for announce/update from node
+   */
+  public void deferCoordinatorOnline() {
+    log.info("[{}]: Defer re-interview of sleepy node {} until it checks in", entityID, nodeIeeeAddress);
+    this.reinterviewDeferred = true;
   }
 
   private List<Integer> processClusters(Collection<Integer> initialClusters, Set<Integer> newClusters) {
@@ -463,13 +690,41 @@ public class ZigBeeDeviceService implements ZigBeeNetworkNodeListener, ZigBeeAnn
   }
 
   private int calcEndpointHash(Collection<ZigBeeEndpoint> endpoints) {
-    StringBuilder hashBuilder = new StringBuilder(endpoints.size() + "_");
     List<ZigBeeEndpoint> zigBeeEndpoints = new ArrayList<>(endpoints);
     zigBeeEndpoints.sort(Comparator.comparingInt(ZigBeeEndpoint::getEndpointId));
+    int hash = zigBeeEndpoints.size();
     for (ZigBeeEndpoint endpoint : zigBeeEndpoints) {
-      hashBuilder.append(endpoint.getInputClusterIds().stream().map(String::valueOf).collect(Collectors.joining("i")));
-      hashBuilder.append(endpoint.getOutputClusterIds().stream().map(String::valueOf).collect(Collectors.joining("o")));
+      hash = 31 * hash + endpoint.getEndpointId();
+      hash = 31 * hash + calcSortedHash(endpoint.getInputClusterIds());
+      hash = 31 * hash + calcSortedHash(endpoint.getOutputClusterIds());
+    }
+    return hash;
+  }
+
+  /**
+   * Order dependent hash of sorted values. Set hash is a sum of element hashes, so i.e. {0, 6} and {1, 5} would be equal
+   */
+  private static <T extends Comparable<T>> int calcSortedHash(Collection<T> values) {
+    return new ArrayList<>(new TreeSet<>(values)).hashCode();
+  }
+
+  /**
+   * Fingerprint of node endpoints and clusters, firmware/date code, converters set of device and all converters known to addon
+   */
+  private long calcFingerprint(ZigBeeNode node) {
+    long hash = calcEndpointHash(node.getEndpoints());
+    hash = 31 * hash + Objects.hash(entity.getFirmwareVersion(), entity.getAppVersion(), entity.getDateCode());
+    Set<String> converters = new TreeSet<>();
+    for (ZigBeeEndpointEntity endpoint : entity.getEndpoints()) {
+      converters.add(endpoint.getAddress() + ":" + endpoint.getClusterName());
+    }
+    hash = 31 * hash + calcSortedHash(converters);
+    hash = 31 * hash + zigBeeChannelConverterFactory.getConverterSetHash();
+    int definitionHash = getDefinitionHash();
+    if (definitionHash != 0) {
+      hash = 31 * hash + definitionHash;
     }
-    return hashBuilder.toString().hashCode();
+    // avoid 0, which means unknown fingerprint
+    return hash == 0 ? 1 : hash;
   }
 }
@@ -89,21 +89,26 @@ public class ZigBeeDiscoveryService implements ZigBeeNetworkNodeListener {
       return;
     }
 
-    entityContext.bgp().builder("zigbee-node-discover-" + node.getIeeeAddress())
-                 .delay(Duration.ofMillis(10))
-                 .execute(() -> {
-                   log.info("[{}]: Starting ZigBee device discovery {}", entityID, node.getIeeeAddress());
-                   ZigBeeDeviceEntity zigBeeDeviceEntity = addZigBeeDevice(node);
-
-                   if (!node.isDiscovered()) {
-                     log.debug("[{}]: Node discovery not complete {}", entityID, node.getIeeeAddress());
-                     zigBeeDeviceEntity.setStatus(Status.NOT_READY);
-                   } else {
-                     log.debug("[{}]: Node discovery complete {}", entityID, node.getIeeeAddress());
-                     zigBeeDeviceEntity.getService().tryInitializeZigBeeNode();
-                     coordinatorService.serializeNetwork(node.getIeeeAddress());
-                   }
-                 });
+    coordinatorService.getInterviewQueue().submit(done ->
+        entityContext.bgp().builder("zigbee-node-discover-" + node.getIeeeAddress())
+                     .delay(Duration.ofMillis(10))
+                     .execute(() -> {
+                       try {
+                         log.info("[{}]: Starting ZigBee device discovery {}", entityID, node.getIeeeAddress());
+                         ZigBeeDeviceEntity zigBeeDeviceEntity = addZigBeeDevice(node);
+
+                         if (!node.isDiscovered()) {
+                           log.debug("[{}]: Node discovery not complete {}", entityID, node.getIeeeAddress());
+                           zigBeeDeviceEntity.setStatus(Status.NOT_READY);
+                         } else {
+                           log.debug("[{}]: Node discovery complete {}", entityID, node.getIeeeAddress());
+                           zigBeeDeviceEntity.getService().tryInitializeZigBeeNode();
+                           coordinatorService.serializeNetwork(node.getIeeeAddress());
+                         }
+                       } finally {
+                         done.run();
+                       }
+                     }));
   }
 
   /**
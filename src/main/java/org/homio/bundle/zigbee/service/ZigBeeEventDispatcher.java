@@ -0,0 +1,127 @@
+package org.homio.bundle.zigbee.service;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.util.CommonUtils;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs endpoint variable/event fan-out outside of ZigBee receive thread.
+ * <p>
+ * Tasks are sharded by device IEEE address to fixed number of single thread executors, so order of events of one device is kept and slow
+ * listener stalls only devices of its shard. Queue of every shard is bounded. Task submitted with same merge key (endpoint) while previous
+ * one still waits in queue replaces it, so queue keeps only last state of endpoint. Tasks without merge key (edge events like button press
+ * or alarm transition) are never replaced. If queue is full new task is dropped.
+ */
+@Log4j2
+public class ZigBeeEventDispatcher {
+
+  private static final int SHARDS = 4;
+  private static final int QUEUE_CAPACITY = 1024;
+
+  private final String entityID;
+  private final Shard[] shards = new Shard[SHARDS];
+  private final AtomicLong merged = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+  public ZigBeeEventDispatcher(String entityID) {
+    this.entityID = entityID;
+    for (int i = 0; i < SHARDS; i++) {
+      shards[i] = new Shard("zigbee-event-" + entityID + "-" + i);
+    }
+  }
+
+  /**
+   * @param ieeeAddress device address to select shard
+   * @param mergeKey    key of task which may be replaced by next task with same key if not started yet. Null - task is never merged
+   * @return false if task has been dropped because queue is full
+   */
+  public boolean dispatch(String ieeeAddress, @Nullable String mergeKey, Runnable task) {
+    Shard shard = shards[Math.floorMod(ieeeAddress.hashCode(), SHARDS)];
+    if (mergeKey != null && shard.pending.put(mergeKey, task) != null) {
+      merged.incrementAndGet();
+      return true;
+    }
+    try {
+      shard.executor.execute(() -> {
+        Runnable pendingTask = mergeKey == null ? task : shard.pending.remove(mergeKey);
+        if (pendingTask != null) {
+          try {
+            pendingTask.run();
+          } catch (Exception ex) {
+            log.error("[{}]: Error while dispatch event {}. Msg: {}", entityID, mergeKey, CommonUtils.getErrorMessage(ex));
+          }
+        }
+      });
+      maxQueueDepth.accumulateAndGet(shard.executor.getQueue().size(), Math::max);
+      return true;
+    } catch (RejectedExecutionException ex) {
+      if (mergeKey != null) {
+        shard.pending.remove(mergeKey);
+      }
+      if (dropped.incrementAndGet() % 100 == 1) {
+        log.warn("[{}]: Event queue is full. Dropped {} events", entityID, dropped.get());
+      }
+      return false;
+    }
+  }
+
+  public int getQueueDepth() {
+    int depth = 0;
+    for (Shard shard : shards) {
+      depth += shard.executor.getQueue().size();
+    }
+    return depth;
+  }
+
+  /**
+   * @return queue statistic or null if nothing has been dispatched via queue yet
+   */
+  public @Nullable String getStatistic() {
+    if (maxQueueDepth.get() == 0 && merged.get() == 0 && dropped.get() == 0) {
+      return null;
+    }
+    return format("Queued: %d (max %d). Merged: %d. Dropped: %d", getQueueDepth(), maxQueueDepth.get(), merged.get(), dropped.get());
+  }
+
+  /**
+   * Drop not started tasks. Called when coordinator disposed, dispatcher stays usable after coordinator re-initialisation
+   */
+  public void clear() {
+    for (Shard shard : shards) {
+      shard.executor.getQueue().clear();
+      shard.pending.clear();
+    }
+  }
+
+  public void shutdown() {
+    for (Shard shard : shards) {
+      shard.executor.shutdownNow();
+      shard.pending.clear();
+    }
+  }
+
+  private static class Shard {
+
+    private final Map<String, Runnable> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private Shard(String name) {
+      this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.AbortPolicy());
+    }
+  }
+}
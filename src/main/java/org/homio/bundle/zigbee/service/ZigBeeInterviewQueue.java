@@ -0,0 +1,272 @@
+package org.homio.bundle.zigbee.service;
+
+import static java.lang.String.format;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.EntityContext;
+import org.homio.bundle.api.EntityContextBGP.ThreadContext;
+import org.homio.bundle.zigbee.setting.ZigBeeInterviewConcurrencySetting;
+import org.homio.bundle.zigbee.setting.ZigBeeInterviewRateSetting;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Admission queue for blocking node interviews (node discovery and node initialisation).
+ * <p>
+ * Interviews block on ZCL/ZDO responses for a long time, so only limited number of them is started at once and not faster than
+ * configured rate. Rest are kept as queued entries (not as waiting threads) ordered by priority class and then by 'order' value (i.e.
+ * time of last answer from device, so stale devices go first).
+ * <p>
+ * Slot is released when interview job runs 'done' callback or when job is found stopped without it (i.e. cancelled before start). Such
+ * jobs are checked on every admission attempt and periodically while all slots are busy.
+ */
+@Log4j2
+public class ZigBeeInterviewQueue {
+
+  /**
+   * Mains powered routers. Other devices route through them, so they are interviewed first
+   */
+  public static final int PRIORITY_ROUTER = 0;
+  public static final int PRIORITY_DEFAULT = 1;
+
+  /**
+   * Check for stopped interview jobs while all slots are busy and interviews are waiting
+   */
+  private static final long STOPPED_JOBS_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+  private static final Comparator<Interview> ORDER = Comparator.comparingInt((Interview interview) -> interview.priority)
+                                                               .thenComparingLong(interview -> interview.order)
+                                                               .thenComparingLong(interview -> interview.sequence);
+
+  private final String entityID;
+  private final IntSupplier concurrency;
+  private final IntSupplier ratePerMinute;
+  private final LongSupplier clock;
+  /**
+   * Runs task after delay in ms
+   */
+  private final BiConsumer<Long, Runnable> delayedExecutor;
+
+  /**
+   * Interviews waiting for admission. Guarded by this
+   */
+  private final PriorityQueue<Interview> pending = new PriorityQueue<>(ORDER);
+  /**
+   * Started and not yet released interviews. Guarded by this
+   */
+  private final Set<Interview> running = new HashSet<>();
+  private long sequence;
+  private long lastAdmitTime;
+  // time of earliest scheduled admission attempt, 0 if none
+  private long nextAdmitTime;
+
+  // progress of current batch of interviews. Reset when queue becomes idle
+  private int submitted;
+  private int completed;
+  private long batchStartTime;
+
+  public ZigBeeInterviewQueue(EntityContext entityContext, String entityID) {
+    this(entityID,
+        () -> entityContext.setting().getValue(ZigBeeInterviewConcurrencySetting.class),
+        () -> entityContext.setting().getValue(ZigBeeInterviewRateSetting.class),
+        System::currentTimeMillis,
+        (delay, task) -> entityContext.bgp().builder("zigbee-interview-admit-" + entityID)
+                                      .delay(Duration.ofMillis(delay))
+                                      .execute(task::run));
+  }
+
+  ZigBeeInterviewQueue(String entityID, IntSupplier concurrency, IntSupplier ratePerMinute, LongSupplier clock,
+      BiConsumer<Long, Runnable> delayedExecutor) {
+    this.entityID = entityID;
+    this.concurrency = concurrency;
+    this.ratePerMinute = ratePerMinute;
+    this.clock = clock;
+    this.delayedExecutor = delayedExecutor;
+  }
+
+  /**
+   * Start interview with default priority
+   *
+   * @param launcher starts interview job and returns it (may be null). Job must run passed 'done' callback when completes
+   */
+  public void submit(Function<Runnable, ThreadContext<Void>> launcher) {
+    submit(PRIORITY_DEFAULT, 0, launcher);
+  }
+
+  /**
+   * Start interview when number of running interviews drops below limit and rate limit allows it.
+   *
+   * @param priority interview class. Lower value - started earlier
+   * @param order    order inside priority class. Lower value - started earlier
+   * @param launcher starts interview job and returns it (may be null). Job must run passed 'done' callback when completes
+   */
+  public void submit(int priority, long order, Function<Runnable, ThreadContext<Void>> launcher) {
+    synchronized (this) {
+      if (submitted == completed) {
+        batchStartTime = clock.getAsLong();
+      }
+      submitted++;
+      pending.add(new Interview(priority, order, sequence++, launcher));
+    }
+    admit();
+  }
+
+  /**
+   * Drop queued interviews, cancel running ones and free all slots. 'done' callbacks of dropped interviews are ignored
+   */
+  public void reset() {
+    List<ThreadContext<Void>> jobs = new ArrayList<>();
+    synchronized (this) {
+      for (Interview interview : running) {
+        if (interview.job != null) {
+          jobs.add(interview.job);
+        }
+      }
+      log.info("[{}]: Reset interview queue. Cancel {} running and {} queued interviews", entityID, running.size(), pending.size());
+      running.clear();
+      pending.clear();
+      submitted = 0;
+      completed = 0;
+    }
+    for (ThreadContext<Void> job : jobs) {
+      job.cancel();
+    }
+  }
+
+  /**
+   * @return number of started and not yet completed interviews
+   */
+  public synchronized int getRunning() {
+    return running.size();
+  }
+
+  /**
+   * @return number of interviews waiting for admission
+   */
+  public synchronized int getQueued() {
+    return pending.size();
+  }
+
+  /**
+   * @return progress of current interviews batch or null if queue is idle
+   */
+  public synchronized @Nullable String getProgress() {
+    if (submitted == completed) {
+      return null;
+    }
+    return format("%d/%d done. Running: %d. Queued: %d", completed, submitted, running.size(), pending.size());
+  }
+
+  private void admit() {
+    int limit = concurrency.getAsInt();
+    long interval = 60000L / ratePerMinute.getAsInt();
+    while (true) {
+      Interview interview;
+      synchronized (this) {
+        releaseStoppedJobs();
+        if (pending.isEmpty()) {
+          return;
+        }
+        if (running.size() >= limit) {
+          scheduleAdmit(STOPPED_JOBS_CHECK_INTERVAL);
+          return;
+        }
+        long waitTime = lastAdmitTime + interval - clock.getAsLong();
+        if (waitTime > 0) {
+          scheduleAdmit(waitTime);
+          return;
+        }
+        interview = pending.poll();
+        running.add(interview);
+        lastAdmitTime = clock.getAsLong();
+        log.debug("[{}]: Start node interview. Running: {}. Queued: {}", entityID, running.size(), pending.size());
+      }
+      try {
+        ThreadContext<Void> job = interview.launcher.apply(() -> release(interview));
+        synchronized (this) {
+          interview.job = job;
+        }
+      } catch (Exception ex) {
+        log.error("[{}]: Unable to start node interview", entityID, ex);
+        release(interview);
+      }
+    }
+  }
+
+  /**
+   * Release slot of interview. Repeated calls and calls after reset() are ignored
+   */
+  private void release(Interview interview) {
+    synchronized (this) {
+      if (!running.remove(interview)) {
+        return;
+      }
+      onInterviewDone();
+    }
+    admit();
+  }
+
+  // guarded by this
+  private void releaseStoppedJobs() {
+    for (Iterator<Interview> iterator = running.iterator(); iterator.hasNext(); ) {
+      Interview interview = iterator.next();
+      if (interview.job != null && interview.job.isStopped()) {
+        log.warn("[{}]: Node interview job stopped without completion. Release interview slot", entityID);
+        iterator.remove();
+        onInterviewDone();
+      }
+    }
+  }
+
+  // guarded by this
+  private void onInterviewDone() {
+    completed++;
+    if (submitted == completed) {
+      log.info("[{}]: Finished {} node interviews in {}s", entityID, completed,
+          (clock.getAsLong() - batchStartTime) / 1000);
+      submitted = 0;
+      completed = 0;
+    }
+  }
+
+  // guarded by this
+  private void scheduleAdmit(long delay) {
+    long admitTime = clock.getAsLong() + delay;
+    if (nextAdmitTime != 0 && nextAdmitTime <= admitTime) {
+      return;
+    }
+    nextAdmitTime = admitTime;
+    delayedExecutor.accept(delay, () -> {
+      synchronized (this) {
+        if (nextAdmitTime == admitTime) {
+          nextAdmitTime = 0;
+        }
+      }
+      admit();
+    });
+  }
+
+  @RequiredArgsConstructor
+  private static class Interview {
+
+    private final int priority;
+    private final long order;
+    private final long sequence;
+    private final Function<Runnable, ThreadContext<Void>> launcher;
+    // guarded by queue
+    private @Nullable ThreadContext<Void> job;
+  }
+}
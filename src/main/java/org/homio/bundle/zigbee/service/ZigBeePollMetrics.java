@@ -0,0 +1,39 @@
+package org.homio.bundle.zigbee.service;
+
+import static java.lang.String.format;
+
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Poll statistic of device. Poll is failed if device didn't answer until next poll of same endpoint
+ */
+@Getter
+public class ZigBeePollMetrics {
+
+  private int polls;
+  private int failures;
+  private long lastLatency;
+  // exponential moving average of poll latency in milliseconds
+  private double averageLatency;
+
+  public synchronized void pollSent() {
+    polls++;
+  }
+
+  public synchronized void pollFailed() {
+    failures++;
+  }
+
+  public synchronized void pollAnswered(long latency) {
+    lastLatency = latency;
+    averageLatency = averageLatency == 0 ? latency : averageLatency * 0.8 + latency * 0.2;
+  }
+
+  public synchronized @Nullable String getSummary() {
+    if (polls == 0) {
+      return null;
+    }
+    return format("%d polls. Failed: %d. Latency: %dms (avg %dms)", polls, failures, lastLatency, Math.round(averageLatency));
+  }
+}
@@ -0,0 +1,193 @@
+package org.homio.bundle.zigbee.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.EntityContext;
+import org.homio.bundle.api.EntityContextBGP.ThreadContext;
+import org.homio.bundle.api.util.CommonUtils;
+import org.homio.bundle.zigbee.model.ZigBeeEndpointEntity;
+import org.homio.bundle.zigbee.setting.ZigBeePollRateSetting;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Deadline ordered endpoint polling.
+ * <p>
+ * Every registered endpoint has exactly one entry in queue ordered by time of its next poll/alive check. Each tick only takes entries that
+ * are due, so work doesn't depend on total number of endpoints. Endpoint deadline moves forward on every received value, but queue isn't
+ * touched on hot path: when stale entry reaches head, actual deadline is taken from endpoint and entry is moved to it.
+ * <p>
+ * Polls are limited by token bucket ({@link ZigBeePollRateSetting} nodes per second) and all due endpoints of node are polled together
+ * to not flood coordinator queue when many endpoints have same deadline.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class ZigBeePollScheduler {
+
+  private static final Duration TICK = Duration.ofSeconds(1);
+  // queued time of endpoint which is being polled now
+  private static final long POLLING = Long.MIN_VALUE;
+  // endpoints of polled node due within this window are polled in same batch
+  private static final Duration MERGE_WINDOW = Duration.ofSeconds(30);
+
+  private final EntityContext entityContext;
+  private final String entityID;
+
+  // guarded by this
+  private final PriorityQueue<Deadline> queue = new PriorityQueue<>((d1, d2) -> Long.compare(d1.time, d2.time));
+  // time of queued entry by endpoint. Entries with other time are stale. Guarded by this
+  private final Map<ZigbeeEndpointService, Long> queued = new HashMap<>();
+  private @Nullable ThreadContext<Void> tickJob;
+  // limits number of polled nodes per second. Guarded by this
+  private final TokenBucket tokenBucket = new TokenBucket(System.currentTimeMillis());
+
+  public synchronized void start() {
+    if (tickJob == null) {
+      tickJob = entityContext.bgp().builder("zigbee-poll-" + entityID)
+                             .delay(TICK).interval(TICK).cancelOnError(false).execute(this::tick);
+    }
+  }
+
+  /**
+   * Stop polling and forget all endpoints. Endpoints register again when their services are created
+   */
+  public synchronized void stop() {
+    if (tickJob != null) {
+      tickJob.cancel();
+      tickJob = null;
+    }
+    queue.clear();
+    queued.clear();
+  }
+
+  /**
+   * Add endpoint to polling or move its deadline if it has been shortened (i.e. polling interval changed)
+   */
+  public synchronized void schedule(ZigbeeEndpointService service) {
+    long time = service.getNextPollTime();
+    Long queuedTime = queued.get(service);
+    if (queuedTime == null || time < queuedTime) {
+      push(service, time);
+    }
+  }
+
+  public synchronized void remove(ZigbeeEndpointService service) {
+    // entry in queue becomes stale and dropped when reaching head
+    queued.remove(service);
+  }
+
+  public synchronized int size() {
+    return queued.size();
+  }
+
+  private void tick() {
+    long now = System.currentTimeMillis();
+    // due endpoints grouped by node. Node is charged one token no matter how many endpoints it polls
+    Map<ZigBeeDeviceService, List<ZigbeeEndpointService>> due = new LinkedHashMap<>();
+    synchronized (this) {
+      tokenBucket.refill(entityContext.setting().getValue(ZigBeePollRateSetting.class), now);
+      while (!queue.isEmpty() && queue.peek().time <= now) {
+        Deadline deadline = queue.poll();
+        Long queuedTime = queued.get(deadline.service);
+        if (queuedTime == null || queuedTime != deadline.time) {
+          continue; // removed or rescheduled
+        }
+        long time = deadline.service.getNextPollTime();
+        if (time > now) {
+          push(deadline.service, time); // endpoint received value after entry was queued
+          continue;
+        }
+        ZigBeeDeviceService device = deadline.service.getZigBeeDeviceService();
+        if (!due.containsKey(device)) {
+          if (!tokenBucket.tryAcquire()) {
+            // rate limit reached. Keep entry on its place and continue on next tick
+            queue.add(deadline);
+            break;
+          }
+          due.put(device, new ArrayList<>());
+        }
+        queued.put(deadline.service, POLLING);
+        due.get(device).add(deadline.service);
+      }
+      due.forEach((device, services) -> addNearlyDue(device, services, now));
+    }
+    for (List<ZigbeeEndpointService> services : due.values()) {
+      for (ZigbeeEndpointService service : services) {
+        try {
+          service.pollRequest(false);
+        } catch (Exception ex) {
+          log.error("[{}]: Error poll endpoint {}. Msg: {}", entityID, service.getEntity(), CommonUtils.getErrorMessage(ex));
+        }
+        synchronized (this) {
+          // endpoint may be removed while polling
+          Long queuedTime = queued.get(service);
+          if (queuedTime != null && queuedTime == POLLING) {
+            // not polled endpoints (offline, device not online) are checked again after full interval
+            push(service, Math.max(service.getNextPollTime(), now + service.getPollInterval()));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Poll endpoints of same node which are going to be due soon together with due ones, so reads of same cluster are merged into one
+   * request and sleepy/busy node is woken up once
+   */
+  // guarded by this
+  private void addNearlyDue(ZigBeeDeviceService device, List<ZigbeeEndpointService> services, long now) {
+    for (ZigBeeEndpointEntity endpoint : device.getEntity().getEndpoints()) {
+      ZigbeeEndpointService service = endpoint.optService().orElse(null);
+      if (service != null && queued.containsKey(service) && queued.get(service) != POLLING
+          && service.getNextPollTime() <= now + MERGE_WINDOW.toMillis()) {
+        queued.put(service, POLLING); // queue entry becomes stale
+        services.add(service);
+      }
+    }
+  }
+
+  // guarded by this
+  private void push(ZigbeeEndpointService service, long time) {
+    queued.put(service, time);
+    queue.add(new Deadline(time, service));
+  }
+
+  /**
+   * Token bucket refilled with rate tokens per second, holding at most one second of tokens
+   */
+  static class TokenBucket {
+
+    private double tokens;
+    private long lastRefillTime;
+
+    TokenBucket(long now) {
+      this.lastRefillTime = now;
+    }
+
+    void refill(int rate, long now) {
+      tokens = Math.min(rate, tokens + rate * Math.max(0, now - lastRefillTime) / 1000D);
+      lastRefillTime = now;
+    }
+
+    boolean tryAcquire() {
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class Deadline {
+
+    private final long time;
+    private final ZigbeeEndpointService service;
+  }
+}
@@ -0,0 +1,109 @@
+package org.homio.bundle.zigbee.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.EntityContext;
+import org.homio.bundle.api.EntityContextBGP.ThreadContext;
+import org.homio.bundle.api.state.State;
+import org.homio.bundle.api.util.CommonUtils;
+import org.homio.bundle.zigbee.model.ZigBeeEndpointEntity;
+import org.homio.bundle.zigbee.setting.ZigBeeUiUpdateWindowSetting;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Coalesce endpoint value UI pushes and 'last answer' timestamp writes. Only last value of endpoint received within window is pushed.
+ * <p>
+ * If pushing to UI takes long (UI is slow), next flush is postponed, so pending updates are merged over longer period instead of being
+ * queued. Number of pending updates never exceeds number of endpoints.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class ZigBeeUiUpdateCoalescer {
+
+  private static final long MAX_WINDOW = 30000;
+
+  private final EntityContext entityContext;
+  private final String entityID;
+
+  // last not pushed update by endpoint entityID
+  private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+  // extra delay of next flush if UI is slow
+  private volatile long backoff;
+  // scheduled or running flush. Guarded by this
+  private @Nullable ThreadContext<Void> flushJob;
+
+  public void update(ZigBeeEndpointEntity endpoint, State state, long time) {
+    int window = entityContext.setting().getValue(ZigBeeUiUpdateWindowSetting.class);
+    if (window == 0) {
+      push(new PendingUpdate(endpoint, state, time));
+      return;
+    }
+    pending.put(endpoint.getEntityID(), new PendingUpdate(endpoint, state, time));
+    scheduleFlush(window);
+  }
+
+  /**
+   * Drop pending updates and cancel scheduled flush. Flush is scheduled again on next update
+   */
+  public synchronized void dispose() {
+    if (flushJob != null) {
+      flushJob.cancel();
+      flushJob = null;
+    }
+    pending.clear();
+    backoff = 0;
+  }
+
+  private synchronized void scheduleFlush(int window) {
+    // job cancelled outside before it ran can't reschedule itself
+    if (flushJob == null || flushJob.isStopped()) {
+      flushJob = entityContext.bgp().builder("zigbee-ui-flush-" + entityID)
+                              .delay(Duration.ofMillis(window + backoff))
+                              .execute(() -> flush(window));
+    }
+  }
+
+  private void flush(int window) {
+    long startTime = System.currentTimeMillis();
+    try {
+      for (String key : pending.keySet()) {
+        PendingUpdate update = pending.remove(key);
+        if (update != null) {
+          push(update);
+        }
+      }
+    } finally {
+      long duration = System.currentTimeMillis() - startTime;
+      backoff = duration > window / 2 ? Math.min(MAX_WINDOW, duration * 2) : 0;
+      if (backoff > 0) {
+        log.debug("[{}]: UI updates took {}ms. Postpone next flush for {}ms", entityID, duration, backoff);
+      }
+      synchronized (this) {
+        flushJob = null;
+        if (!pending.isEmpty()) {
+          scheduleFlush(window);
+        }
+      }
+    }
+  }
+
+  private void push(PendingUpdate update) {
+    try {
+      update.endpoint.pushValue(update.state);
+      update.endpoint.setLastAnswerFromEndpoint(update.time);
+    } catch (Exception ex) {
+      log.warn("[{}]: Unable to update endpoint {} UI. Msg: {}", entityID, update.endpoint, CommonUtils.getErrorMessage(ex));
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class PendingUpdate {
+
+    private final ZigBeeEndpointEntity endpoint;
+    private final State state;
+    private final long time;
+  }
+}
@@ -5,6 +5,9 @@ import com.zsmartsystems.zigbee.ZigBeeEndpoint;
 import com.zsmartsystems.zigbee.ZigBeeProfileType;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
@@ -17,6 +20,7 @@ import org.jetbrains.annotations.Nullable;
 import org.homio.bundle.api.EntityContext;
 import org.homio.bundle.api.model.Status;
 import org.homio.bundle.api.service.EntityService.ServiceInstance;
+import org.homio.bundle.api.state.DecimalType;
 import org.homio.bundle.api.state.ObjectType;
 import org.homio.bundle.api.state.State;
 
@@ -39,7 +43,11 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
     private final IeeeAddress localIpAddress;
     @Getter private final Optional<EndpointDefinition> endpointDefinition;
     private final int maxFailedPollRequests = 10;
-    @Nullable private String variableId;
+    // spread polls of endpoints created at same time, max 5 minutes
+    private final long maxPollJitter = 300000;
+    // endpoint is polled not more often than once per minute even if converter reports shorter interval
+    private final long minPollInterval = 60000;
+    @Nullable private volatile String variableId;
     private ZigBeeEndpointEntity entity;
     // TODO: NEED HANDLE into properties!
     @Setter
@@ -48,6 +56,19 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
     @Setter
     private long lastPollRequest = System.currentTimeMillis();
     private int failedPollRequests = 0;
+    // time of last not answered poll or 0
+    private long pollSentTime;
+    // endpoint filter state. Values arrive from receive and poll threads, so guarded by publishSync
+    private final Object publishSync = new Object();
+    // last value passed to variable and events
+    @Nullable private State lastPublishedState;
+    private long lastPublishTime;
+    // latest value dropped by min publish interval. Published when interval expires unless newer value published before
+    @Nullable private State suppressedState;
+    @Nullable private ScheduledFuture<?> trailingPublish;
+    // event keys fired on every value update
+    private final String deviceEventKey;
+    private final String clusterEventKey;
 
     public ZigbeeEndpointService(ZigBeeBaseChannelConverter cluster, ZigBeeDeviceService zigBeeDeviceService,
         ZigBeeEndpointEntity entity, Optional<EndpointDefinition> endpointDefinition) {
@@ -60,27 +81,89 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
         this.coordinator = coordinatorService.getEntity();
         this.localEndpointId = coordinatorService.getLocalEndpointId(ZigBeeProfileType.ZIGBEE_HOME_AUTOMATION);
         this.localIpAddress = coordinatorService.getLocalIeeeAddress();
+        this.deviceEventKey = entity.getIeeeAddress();
+        this.clusterEventKey = entity.getIeeeAddress() + "_" + entity.getClusterId();
 
         // fire initialize endpoint
         ZigBeeEndpoint endpoint = coordinatorService.getEndpoint(zigBeeDeviceService.getNodeIeeeAddress(), entity.getAddress());
         cluster.initialize(this, endpoint);
+
+        coordinatorService.getPollScheduler().schedule(this);
+        coordinatorService.getDeviceIndex().addEndpoint(this);
     }
 
     public void updateValue(State state) {
         this.failedPollRequests = 0;
         this.lastPollRequest = System.currentTimeMillis();
+        if (pollSentTime != 0) {
+            zigBeeDeviceService.getPollMetrics().pollAnswered(lastPollRequest - pollSentTime);
+            pollSentTime = 0;
+        }
         // wake up endpoint if device send request after TTL
         if (this.entity.getStatus() == Status.OFFLINE) {
             this.entity.setStatus(Status.ONLINE);
             this.zigBeeDeviceService.getEntity().updateValue(this.entity, state);
         }
 
+        // value stored immediately, UI push and timestamp are coalesced
         this.entity.setValue(state);
-        this.entity.setLastAnswerFromEndpoint(System.currentTimeMillis());
+        zigBeeDeviceService.getCoordinatorService().getUiUpdateCoalescer().update(entity, state, lastPollRequest);
 
         if (coordinator.isLogEvents()) {
             log.info("[{}]: ZigBee <{}>, event: {}", zigBeeDeviceService.getEntityID(), entity, state);
         }
+        publishIfRequired(state, lastPollRequest);
+    }
+
+    /**
+     * Apply endpoint filter (publish on change only, deadband, min publish interval) and pass value to variable and events. Filter state
+     * is updated only if publish has been accepted by event dispatcher, so dropped value isn't treated as published one
+     */
+    private void publishIfRequired(State state, long time) {
+        synchronized (publishSync) {
+            if (!passFilter(state, time) || !dispatchPublish(state)) {
+                return;
+            }
+            lastPublishedState = state;
+            lastPublishTime = time;
+            suppressedState = null;
+        }
+    }
+
+    private boolean dispatchPublish(State state) {
+        // fan-out runs on device shard of event dispatcher to not block ZigBee receive thread by slow listeners.
+        // Merged per endpoint: several endpoints may share same cluster (multi-gang switch, electrical_* converters).
+        // Edge events (button press, alarm transition) must be delivered one by one, so they are never merged
+        String mergeKey = cluster.isEventChannel() ? null : entity.getEntityID();
+        return zigBeeDeviceService.getCoordinatorService().getEventDispatcher()
+                                  .dispatch(deviceEventKey, mergeKey, () -> publish(state));
+    }
+
+    /**
+     * Publish latest value suppressed by min publish interval once interval expired
+     */
+    private void publishSuppressed() {
+        synchronized (publishSync) {
+            trailingPublish = null;
+            if (suppressedState != null) {
+                publishIfRequired(suppressedState, System.currentTimeMillis());
+            }
+        }
+    }
+
+    private void scheduleTrailingPublish(long delay) {
+        if (trailingPublish != null) {
+            return;
+        }
+        try {
+            trailingPublish = zigBeeDeviceService.getCoordinatorService().getConverterScheduler()
+                                                 .schedule(this::publishSuppressed, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            suppressedState = null; // coordinator is stopping
+        }
+    }
+
+    private void publish(State state) {
         if (variableId == null) {
             variableId = entityContext.var().createVariable(zigBeeDeviceService.getDeviceVariableGroup(), entity.getVariableId(),
                 entity.getVariableName(), cluster.getVariableType(), builder ->
@@ -90,14 +173,47 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
         entityContext.var().set(variableId, state);
 
         ObjectType entityUpdated = new ObjectType(entity);
-        entityContext.event().fireEvent(entity.getIeeeAddress(), entityUpdated);
-        entityContext.event().fireEvent(entity.getIeeeAddress() + "_" + entity.getClusterId(), entityUpdated);
+        entityContext.event().fireEvent(deviceEventKey, entityUpdated);
+        entityContext.event().fireEvent(clusterEventKey, entityUpdated);
+    }
+
+    // guarded by publishSync
+    private boolean passFilter(State state, long time) {
+        State lastState = lastPublishedState;
+        if (lastState != null) {
+            long minPublishInterval = entity.getMinPublishInterval() * 1000L;
+            if (minPublishInterval > 0 && time - lastPublishTime < minPublishInterval) {
+                suppressedState = state;
+                scheduleTrailingPublish(lastPublishTime + minPublishInterval - time);
+                return false;
+            }
+            if (state instanceof DecimalType && lastState instanceof DecimalType) {
+                double lastValue = ((DecimalType) lastState).doubleValue();
+                double delta = Math.abs(((DecimalType) state).doubleValue() - lastValue);
+                if (delta == 0 && entity.getPublishOnChangeOnly()) {
+                    return false;
+                }
+                if (delta < entity.getDeadbandAbsolute()) {
+                    return false;
+                }
+                double deadbandPercent = entity.getDeadbandPercent();
+                if (deadbandPercent > 0 && lastValue != 0 && delta * 100 / Math.abs(lastValue) < deadbandPercent) {
+                    return false;
+                }
+            } else if (entity.getPublishOnChangeOnly() && state.toString().equals(lastState.toString())) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public boolean entityUpdated(ZigBeeEndpointEntity entity) {
         this.entity = entity;
+        zigBeeDeviceService.getCoordinatorService().getDeviceIndex().updateEndpoint(this);
         this.cluster.updateConfiguration();
+        // polling interval may become shorter
+        zigBeeDeviceService.getCoordinatorService().getPollScheduler().schedule(this);
         // if entity has been updated during configuration
         if (entity.isOutdated()) {
             log.info("[{}]: Endpoint had been updated during cluster configuration", zigBeeDeviceService.getEntityID());
@@ -108,7 +224,15 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
 
     @Override
     public void destroy() {
-
+        synchronized (publishSync) {
+            if (trailingPublish != null) {
+                trailingPublish.cancel(false);
+                trailingPublish = null;
+            }
+            suppressedState = null;
+        }
+        zigBeeDeviceService.getCoordinatorService().getPollScheduler().remove(this);
+        zigBeeDeviceService.getCoordinatorService().getDeviceIndex().removeEndpoint(this);
     }
 
     @Override
@@ -116,20 +240,49 @@ public class ZigbeeEndpointService implements ServiceInstance<ZigBeeEndpointEnti
         return false;
     }
 
+    /**
+     * @return min polling interval in milliseconds, at least one minute
+     */
+    public long getPollInterval() {
+        return Math.max(minPollInterval, cluster.getMinPollingInterval() * 1000L);
+    }
+
+    /**
+     * @return time when endpoint should be polled if no value received till this time. Includes jitter which is constant for endpoint,
+     * up to 10% of interval
+     */
+    public long getNextPollTime() {
+        long interval = getPollInterval();
+        long jitter = Math.floorMod(entity.getEntityID().hashCode(), Math.max(1, Math.min(interval / 10, maxPollJitter)));
+        return lastPollRequest + interval + jitter;
+    }
+
     public void pollRequest(boolean force) {
         if (force) {
             cluster.fireRefreshAttribute(null);
             return;
         }
+        // only initialised and online devices are polled
+        if (!zigBeeDeviceService.getEntity().getStatus().isOnline()
+            || !zigBeeDeviceService.getCoordinatorService().getRegisteredDevices().contains(zigBeeDeviceService)) {
+            return;
+        }
         if (this.failedPollRequests > maxFailedPollRequests) {
-            entity.setStatus(Status.OFFLINE);
+            if (entity.getStatus() != Status.OFFLINE) {
+                entity.setStatus(Status.OFFLINE);
+                zigBeeDeviceService.checkAlive();
+            }
             return;
         }
-        if ((System.currentTimeMillis() - lastPollRequest) / 1000 > cluster.getMinPollingInterval()) {
-            log.info("[{}]: Polling endpoint {} attribute", zigBeeDeviceService.getEntityID(), entity);
-            lastPollRequest = System.currentTimeMillis();
-            failedPollRequests++;
-            cluster.fireRefreshAttribute(null);
+        // due time checked by ZigBeePollScheduler. It may poll endpoint bit earlier together with other endpoints of same node
+        log.info("[{}]: Polling endpoint {} attribute", zigBeeDeviceService.getEntityID(), entity);
+        lastPollRequest = System.currentTimeMillis();
+        failedPollRequests++;
+        if (pollSentTime != 0) {
+            zigBeeDeviceService.getPollMetrics().pollFailed();
         }
+        pollSentTime = lastPollRequest;
+        zigBeeDeviceService.getPollMetrics().pollSent();
+        cluster.fireRefreshAttribute(null);
     }
 }
@@ -0,0 +1,30 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Max number of clusters of one device bound/configured for reporting in parallel. Bind and Configure Reporting requests wait for
+ * device answer, so sleepy end devices tolerate less parallel requests than cluster probes. Limited by shared binding executor threads
+ */
+public class ZigBeeBindMaxInFlightSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 31;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 2;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 4;
+  }
+}
@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Max number of concurrent cluster probes per device during converter matching
+ */
+public class ZigBeeDiscoveryMaxInFlightSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 30;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 3;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 8;
+  }
+}
@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Max number of nodes discovered/initialised concurrently
+ */
+public class ZigBeeInterviewConcurrencySetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 40;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 4;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 32;
+  }
+}
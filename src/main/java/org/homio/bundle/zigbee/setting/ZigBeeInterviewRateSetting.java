@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Max number of node interviews started per minute
+ */
+public class ZigBeeInterviewRateSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 41;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 30;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 120;
+  }
+}
@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Max number of nodes polled per second by coordinator
+ */
+public class ZigBeePollRateSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 43;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 4;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 50;
+  }
+}
@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Hours after which device binding and reporting are configured again even if device endpoints fingerprint not changed
+ */
+public class ZigBeeRebindIntervalSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 42;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 168;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 1;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 720;
+  }
+}
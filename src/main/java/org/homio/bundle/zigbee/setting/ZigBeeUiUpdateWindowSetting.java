@@ -0,0 +1,29 @@
+package org.homio.bundle.zigbee.setting;
+
+import org.homio.bundle.api.setting.SettingPluginSlider;
+
+/**
+ * Time in milliseconds to collect endpoint value updates before pushing last of them to UI. 0 - push every update
+ */
+public class ZigBeeUiUpdateWindowSetting implements SettingPluginSlider {
+
+  @Override
+  public int order() {
+    return 44;
+  }
+
+  @Override
+  public int defaultValue() {
+    return 1000;
+  }
+
+  @Override
+  public Integer getMin() {
+    return 0;
+  }
+
+  @Override
+  public Integer getMax() {
+    return 10000;
+  }
+}
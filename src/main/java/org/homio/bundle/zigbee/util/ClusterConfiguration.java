@@ -1,8 +1,8 @@
 package org.homio.bundle.zigbee.util;
 
 import com.zsmartsystems.zigbee.zcl.protocol.ZclClusterType;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -13,8 +13,9 @@ import org.jetbrains.annotations.NotNull;
 @RequiredArgsConstructor
 public class ClusterConfiguration extends ShareConfiguration {
 
+    // defined attributes are added on compile, defaults of other attributes are added lazily from any thread
     private final Map<Integer, ClusterAttributeConfiguration> attributeConfigurations =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     // get zigbee cluster by name
     private final ZclClusterType zclClusterType;
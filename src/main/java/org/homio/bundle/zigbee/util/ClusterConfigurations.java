@@ -1,6 +1,5 @@
 package org.homio.bundle.zigbee.util;
 
-import static org.homio.bundle.api.util.CommonUtils.OBJECT_MAPPER;
 import static org.homio.bundle.zigbee.util.JsonReaderUtil.getBoolean;
 import static org.homio.bundle.zigbee.util.JsonReaderUtil.getNumber;
 
@@ -10,22 +9,26 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import lombok.Getter;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
-import org.homio.bundle.api.util.CommonUtils;
 
 
 @Log4j2
 public final class ClusterConfigurations {
 
-    @Getter
-    private static final Map<Integer, ClusterConfiguration> clusterConfigurations = new HashMap<>();
+    // configurations of clusters not present in registry. Have no settings, so don't depend on registry version
+    private static final Map<Integer, ClusterConfiguration> defaultConfigurations = new ConcurrentHashMap<>();
 
-    static {
-        var objectNode =
-            CommonUtils.readAndMergeJSON(
-                        "cluster-configuration.json", OBJECT_MAPPER.createObjectNode());
+    /**
+     * @return cluster configurations of currently active registry version
+     */
+    public static Map<Integer, ClusterConfiguration> getClusterConfigurations() {
+        return ZigBeeDefinitionRegistry.getSnapshot().getClusterConfigurations();
+    }
+
+    static Map<Integer, ClusterConfiguration> compile(JsonNode objectNode) {
+        Map<Integer, ClusterConfiguration> clusterConfigurations = new HashMap<>();
         for (Iterator<Entry<String, JsonNode>> iterator = objectNode.fields();
                 iterator.hasNext(); ) {
             Entry<String, JsonNode> entry = iterator.next();
@@ -49,6 +52,7 @@ public final class ClusterConfigurations {
             }
             clusterConfigurations.put(zclClusterType.getId(), clusterConfiguration);
         }
+        return Map.copyOf(clusterConfigurations);
     }
 
     private static void assembleShareConfiguration(
@@ -78,7 +82,11 @@ public final class ClusterConfigurations {
     }
 
     public static @NotNull ClusterConfiguration getClusterConfiguration(int clusterId) {
-        return clusterConfigurations.computeIfAbsent(
+        ClusterConfiguration clusterConfiguration = getClusterConfigurations().get(clusterId);
+        if (clusterConfiguration != null) {
+            return clusterConfiguration;
+        }
+        return defaultConfigurations.computeIfAbsent(
                 clusterId, id -> new ClusterConfiguration(ZclClusterType.getValueById(clusterId)));
     }
 }
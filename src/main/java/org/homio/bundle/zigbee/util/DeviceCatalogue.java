@@ -0,0 +1,271 @@
+package org.homio.bundle.zigbee.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.state.ButtonType.ButtonPressType;
+import org.homio.bundle.api.util.CommonUtils;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ButtonEventSpec;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compact binary catalogue of imported device definitions (see {@link Z2MDefinitionImporter}).
+ * <p>
+ * Catalogue is loaded on first lookup. Only sorted model index and raw record bytes are kept in memory, definition is decoded when
+ * device with its model is looked up and cached afterwards. Definitions from 'device-definitions.json' take precedence over catalogue.
+ * Catalogue resource exists only if build was run with z2m device dump, otherwise catalogue is empty.
+ * <p>
+ * Format: magic, number of records, sorted index of (model, record number), record offsets, record bytes.
+ */
+@Log4j2
+public final class DeviceCatalogue {
+
+    public static final String RESOURCE = "zigbee-catalogue.bin";
+
+    private static final int MAGIC = 0x5A424332; // 'ZBC2'
+
+    private final String[] models;
+    private final int[] modelRecords;
+    private final int[] recordOffsets;
+    private final byte[] records;
+    private final Map<Integer, DeviceConfiguration> decoded = new ConcurrentHashMap<>();
+
+    private DeviceCatalogue(String[] models, int[] modelRecords, int[] recordOffsets, byte[] records) {
+        this.models = models;
+        this.modelRecords = modelRecords;
+        this.recordOffsets = recordOffsets;
+        this.records = records;
+    }
+
+    public static DeviceCatalogue getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public Optional<DeviceConfiguration> find(@Nullable String modelIdentifier) {
+        if (modelIdentifier == null) {
+            return Optional.empty();
+        }
+        int index = Arrays.binarySearch(models, modelIdentifier);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(decoded.computeIfAbsent(modelRecords[index], this::decode));
+    }
+
+    public int size() {
+        return recordOffsets.length;
+    }
+
+    public static DeviceCatalogue read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IllegalStateException("Wrong device catalogue format");
+        }
+        int recordCount = in.readInt();
+        int modelCount = in.readInt();
+        String[] models = new String[modelCount];
+        int[] modelRecords = new int[modelCount];
+        for (int i = 0; i < modelCount; i++) {
+            models[i] = in.readUTF();
+            modelRecords[i] = in.readInt();
+        }
+        int[] recordOffsets = new int[recordCount];
+        for (int i = 0; i < recordCount; i++) {
+            recordOffsets[i] = in.readInt();
+        }
+        byte[] records = new byte[in.readInt()];
+        in.readFully(records);
+        return new DeviceCatalogue(models, modelRecords, recordOffsets, records);
+    }
+
+    public static void write(Collection<DeviceConfiguration> definitions, OutputStream outputStream) throws IOException {
+        // model to record number. First defined wins
+        Map<String, Integer> index = new TreeMap<>();
+        int[] recordOffsets = new int[definitions.size()];
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordsOut = new DataOutputStream(records);
+        int record = 0;
+        for (DeviceConfiguration definition : definitions) {
+            recordOffsets[record] = records.size();
+            encode(definition, recordsOut);
+            for (String model : definition.getModels()) {
+                index.putIfAbsent(model, record);
+            }
+            record++;
+        }
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(definitions.size());
+        out.writeInt(index.size());
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+        for (int recordOffset : recordOffsets) {
+            out.writeInt(recordOffset);
+        }
+        out.writeInt(records.size());
+        records.writeTo(out);
+        out.flush();
+    }
+
+    private static void encode(DeviceConfiguration definition, DataOutputStream out) throws IOException {
+        out.writeUTF(definition.getVendor());
+        writeOptUTF(out, definition.getCategory());
+        writeOptUTF(out, definition.getImage());
+        out.writeUTF(definition.getIcon());
+        out.writeUTF(definition.getIconColor());
+        out.writeInt(definition.getDefinitionHash());
+        out.writeShort(definition.getModels().size());
+        for (String model : definition.getModels()) {
+            out.writeUTF(model);
+        }
+        List<EndpointDefinition> endpoints = definition.getEndpoints();
+        out.writeShort(endpoints.size());
+        for (EndpointDefinition endpoint : endpoints) {
+            // raw id, getId() falls back to type id
+            writeOptUTF(out, endpoint.getId().equals(endpoint.getTypeId()) ? null : endpoint.getId());
+            out.writeUTF(endpoint.getTypeId());
+            writeOptUTF(out, endpoint.getUnit());
+            out.writeShort(endpoint.getEndpoint());
+            out.writeShort(endpoint.getInputClusters().size());
+            for (Integer clusterId : endpoint.getInputClusters()) {
+                out.writeShort(clusterId);
+            }
+            writeOptDouble(out, endpoint.getScale());
+            ReportSpec report = endpoint.getReport();
+            out.writeBoolean(report != null);
+            if (report != null) {
+                writeOptInt(out, report.getMin());
+                writeOptInt(out, report.getMax());
+                writeOptInt(out, report.getChange());
+            }
+            out.writeByte(endpoint.getButtonEvents().size());
+            for (Map.Entry<ButtonPressType, ButtonEventSpec> entry : endpoint.getButtonEvents().entrySet()) {
+                ButtonEventSpec event = entry.getValue();
+                out.writeUTF(entry.getKey().name());
+                out.writeShort(event.getClusterId());
+                writeOptInt(out, event.getCommandId());
+                writeOptUTF(out, event.getParameterName());
+                writeOptUTF(out, event.getParameterValue());
+                writeOptInt(out, event.getAttributeId());
+                writeOptUTF(out, event.getAttributeValue());
+            }
+        }
+    }
+
+    private DeviceConfiguration decode(int record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(records, recordOffsets[record], records.length));
+            var definition = new DeviceConfiguration();
+            definition.setVendor(in.readUTF());
+            definition.setCategory(readOptUTF(in));
+            definition.setImage(readOptUTF(in));
+            definition.setIcon(in.readUTF());
+            definition.setIconColor(in.readUTF());
+            definition.setDefinitionHash(in.readInt());
+            Set<String> models = new LinkedHashSet<>();
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                models.add(in.readUTF());
+            }
+            definition.setModels(models);
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                var endpoint = new EndpointDefinition();
+                endpoint.setId(readOptUTF(in));
+                endpoint.setTypeId(in.readUTF());
+                endpoint.setUnit(readOptUTF(in));
+                endpoint.setEndpoint(in.readUnsignedShort());
+                Set<Integer> inputClusters = new LinkedHashSet<>();
+                for (int c = in.readUnsignedShort(); c > 0; c--) {
+                    inputClusters.add(in.readUnsignedShort());
+                }
+                endpoint.setInputClusters(inputClusters);
+                endpoint.setScale(readOptDouble(in));
+                if (in.readBoolean()) {
+                    endpoint.setReport(new ReportSpec(readOptInt(in), readOptInt(in), readOptInt(in)));
+                }
+                Map<ButtonPressType, ButtonEventSpec> buttonEvents = new EnumMap<>(ButtonPressType.class);
+                for (int e = in.readUnsignedByte(); e > 0; e--) {
+                    ButtonPressType pressType = ButtonPressType.valueOf(in.readUTF());
+                    buttonEvents.put(pressType, new ButtonEventSpec(in.readUnsignedShort(), readOptInt(in), readOptUTF(in), readOptUTF(in),
+                        readOptInt(in), readOptUTF(in)));
+                }
+                endpoint.setButtonEvents(Map.copyOf(buttonEvents));
+                definition.addEndpoint(endpoint);
+            }
+            return definition;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to decode device catalogue record " + record, ex);
+        }
+    }
+
+    private static void writeOptUTF(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static @Nullable String readOptUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeOptInt(DataOutputStream out, @Nullable Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static @Nullable Integer readOptInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeOptDouble(DataOutputStream out, @Nullable Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static @Nullable Double readOptDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static DeviceCatalogue load() {
+        try (InputStream inputStream = DeviceCatalogue.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (inputStream != null) {
+                DeviceCatalogue catalogue = read(inputStream);
+                log.info("Loaded ZigBee device catalogue. Definitions: {}. Models: {}", catalogue.size(), catalogue.models.length);
+                return catalogue;
+            }
+            log.info("ZigBee device catalogue not bundled. Use device-definitions.json only");
+        } catch (Exception ex) {
+            log.error("Unable to load ZigBee device catalogue. Msg: {}", CommonUtils.getErrorMessage(ex));
+        }
+        return new DeviceCatalogue(new String[0], new int[0], new int[0], new byte[0]);
+    }
+
+    private static class Holder {
+
+        private static final DeviceCatalogue INSTANCE = load();
+    }
+}
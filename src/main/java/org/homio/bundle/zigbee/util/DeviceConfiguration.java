@@ -1,14 +1,15 @@
 package org.homio.bundle.zigbee.util;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.homio.bundle.api.state.ButtonType.ButtonPressType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,6 +24,8 @@ public class DeviceConfiguration {
     private @Nullable String icon;
     private @Nullable String iconColor;
     private Map<Integer, Map<String, EndpointDefinition>> endpoints = new HashMap<>();
+    // content hash of definition source to detect changed definitions after registry reload
+    private int definitionHash;
 
     public String getImage() {
         return image == null ? "zigbee-" + getFirstModel() : image;
@@ -40,14 +43,6 @@ public class DeviceConfiguration {
         return models.iterator().next();
     }
 
-    public @Nullable JsonNode findMetadata(int endpointId, String converterName) {
-        EndpointDefinition endpointDefinition = getEndpoint(endpointId, converterName);
-        if (endpointDefinition != null) {
-            return endpointDefinition.getMetadata();
-        }
-        return null;
-    }
-
     public @Nullable EndpointDefinition getEndpoint(int endpointId, String converterName) {
         Map<String, EndpointDefinition> map = endpoints.get(endpointId);
         if (map != null) {
@@ -73,7 +68,10 @@ public class DeviceConfiguration {
         private @NotNull String typeId;
         private @Nullable String unit;
 
-        private JsonNode metadata;
+        // compiled from 'meta' on definition load
+        private @Nullable Double scale;
+        private @Nullable ReportSpec report;
+        private @NotNull Map<ButtonPressType, ButtonEventSpec> buttonEvents = Map.of();
 
         public String getId() {
             return id == null ? typeId : id;
@@ -87,4 +85,37 @@ public class DeviceConfiguration {
             return "zigbee.endpoint.description." + getId();
         }
     }
+
+    /**
+     * Default reporting of endpoint attribute, same meaning as 'report' of cluster-configuration.json
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ReportSpec {
+
+        private final @Nullable Integer min;
+        private final @Nullable Integer max;
+        private final @Nullable Integer change;
+    }
+
+    /**
+     * Button press recognized either by command (optionally with command parameter value) or by attribute value report
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class ButtonEventSpec {
+
+        private final int clusterId;
+        private final @Nullable Integer commandId;
+        private final @Nullable String parameterName;
+        private final @Nullable String parameterValue;
+        private final @Nullable Integer attributeId;
+        private final @Nullable String attributeValue;
+
+        public boolean isCommand() {
+            return commandId != null;
+        }
+    }
 }
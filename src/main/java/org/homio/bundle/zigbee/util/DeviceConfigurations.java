@@ -1,71 +1,198 @@
 package org.homio.bundle.zigbee.util;
 
 import static java.util.Optional.ofNullable;
-import static org.homio.bundle.api.util.CommonUtils.OBJECT_MAPPER;
+import static org.homio.bundle.zigbee.util.JsonReaderUtil.getNumber;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.state.ButtonType.ButtonPressType;
 import org.jetbrains.annotations.Nullable;
-import org.homio.bundle.api.util.CommonUtils;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ButtonEventSpec;
 import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
 
 
+@Log4j2
 public final class DeviceConfigurations {
 
-    @Getter private static final List<DeviceConfiguration> defineEndpoints = new ArrayList<>();
+    /**
+     * Model identifier which ends with this suffix defines family of models, i.e. 'lumi.remote*'
+     */
+    private static final String MODEL_FAMILY_SUFFIX = "*";
 
-    static {
-        try {
-            var objectNode = CommonUtils.readAndMergeJSON("device-definitions.json",
-                OBJECT_MAPPER.createObjectNode());
+    /**
+     * @return definitions of currently active registry version
+     */
+    public static List<DeviceConfiguration> getDefineEndpoints() {
+        return ZigBeeDefinitionRegistry.getSnapshot().getDevices().getDefinitions();
+    }
+
+    /**
+     * Find definition by exact model identifier or, if not found, by longest model family ('lumi.remote*') which is prefix of model
+     * identifier. Falls back to imported device catalogue. Cost doesn't depend on number of definitions.
+     */
+    public static Optional<DeviceConfiguration> getDeviceDefinition(@Nullable String modelIdentifier) {
+        return ZigBeeDefinitionRegistry.getSnapshot().getDevices().find(modelIdentifier)
+                                       .or(() -> DeviceCatalogue.getInstance().find(modelIdentifier));
+    }
+
+    /**
+     * Compile device definitions. Definition of source which goes first wins if same model defined more than once
+     */
+    static CompiledDefinitions compile(List<JsonNode> sources) {
+        List<DeviceConfiguration> definitions = new ArrayList<>();
+        for (JsonNode objectNode : sources) {
             for (JsonNode vendorNode : objectNode) {
                 for (JsonNode deviceNode : vendorNode.get("devices")) {
-                    var deviceDefinition = new DeviceConfiguration();
-                    if (!deviceNode.has("models")) {
-                        throw noKeyFound(deviceNode, "models");
-                    }
-                    deviceDefinition.setModels(JsonReaderUtil.getOptStringArray(deviceNode, "models"));
-
-                    deviceDefinition.setVendor(deviceNode.has("vendor") ? deviceNode.get("vendor").asText() : vendorNode.asText());
-                    deviceDefinition.setImage(ofNullable(deviceNode.get("image")).map(JsonNode::textValue).orElse(null));
-                    deviceDefinition.setIcon(ofNullable(deviceNode.get("icon")).map(JsonNode::textValue).orElseThrow(() -> noKeyFound(deviceNode, "icon")));
-                    deviceDefinition.setIconColor(
-                        ofNullable(deviceNode.get("iconColor")).map(JsonNode::textValue).orElseThrow(() -> noKeyFound(deviceNode, "iconColor")));
-                    deviceDefinition.setCategory(ofNullable(deviceNode.get("category")).map(JsonNode::textValue).orElse(null));
-                    for (JsonNode endpoint : deviceNode.path("endpoints")) {
-                        var endpointDefinition = new EndpointDefinition();
-                        endpointDefinition.setId(ofNullable(endpoint.get("id")).map(JsonNode::textValue).orElse(null));
-                        endpointDefinition.setInputClusters(JsonReaderUtil.getOptIntegerArray(endpoint, "input_clusters"));
-                        endpointDefinition.setTypeId(endpoint.get("type_id").textValue());
-                        endpointDefinition.setUnit(endpoint.path("unit").asText(null));
-                        endpointDefinition.setEndpoint(endpoint.get("endpoint").asInt());
-                        endpointDefinition.setMetadata(endpoint.get("meta"));
-                        deviceDefinition.addEndpoint(endpointDefinition);
-                    }
+                    definitions.add(compileDevice(vendorNode, deviceNode));
+                }
+            }
+        }
+
+        Map<String, DeviceConfiguration> byModel = new HashMap<>();
+        Map<String, DeviceConfiguration> byModelFamily = new HashMap<>();
+        int maxFamilyLength = 0;
+        for (DeviceConfiguration deviceConfiguration : definitions) {
+            for (String model : deviceConfiguration.getModels()) {
+                if (model.endsWith(MODEL_FAMILY_SUFFIX)) {
+                    String family = model.substring(0, model.length() - MODEL_FAMILY_SUFFIX.length());
+                    byModelFamily.putIfAbsent(family, deviceConfiguration);
+                    maxFamilyLength = Math.max(maxFamilyLength, family.length());
+                } else {
+                    byModel.putIfAbsent(model, deviceConfiguration);
+                }
+            }
+        }
+        return new CompiledDefinitions(List.copyOf(definitions), Map.copyOf(byModel), Map.copyOf(byModelFamily), maxFamilyLength);
+    }
+
+    private static DeviceConfiguration compileDevice(JsonNode vendorNode, JsonNode deviceNode) {
+        var deviceDefinition = new DeviceConfiguration();
+        if (!deviceNode.has("models")) {
+            throw noKeyFound(deviceNode, "models");
+        }
+        deviceDefinition.setModels(JsonReaderUtil.getOptStringArray(deviceNode, "models"));
+
+        deviceDefinition.setVendor(deviceNode.has("vendor") ? deviceNode.get("vendor").asText() : vendorNode.asText());
+        deviceDefinition.setImage(ofNullable(deviceNode.get("image")).map(JsonNode::textValue).orElse(null));
+        deviceDefinition.setIcon(ofNullable(deviceNode.get("icon")).map(JsonNode::textValue).orElseThrow(() -> noKeyFound(deviceNode, "icon")));
+        deviceDefinition.setIconColor(
+            ofNullable(deviceNode.get("iconColor")).map(JsonNode::textValue).orElseThrow(() -> noKeyFound(deviceNode, "iconColor")));
+        deviceDefinition.setCategory(ofNullable(deviceNode.get("category")).map(JsonNode::textValue).orElse(null));
+        deviceDefinition.setDefinitionHash(deviceNode.hashCode());
+        for (JsonNode endpoint : deviceNode.path("endpoints")) {
+            var endpointDefinition = new EndpointDefinition();
+            endpointDefinition.setId(ofNullable(endpoint.get("id")).map(JsonNode::textValue).orElse(null));
+            endpointDefinition.setInputClusters(JsonReaderUtil.getOptIntegerArray(endpoint, "input_clusters"));
+            endpointDefinition.setTypeId(endpoint.get("type_id").textValue());
+            endpointDefinition.setUnit(endpoint.path("unit").asText(null));
+            endpointDefinition.setEndpoint(endpoint.get("endpoint").asInt());
+            compileMetadata(endpointDefinition, endpoint.path("meta"), deviceNode);
+            deviceDefinition.addEndpoint(endpointDefinition);
+        }
+        return deviceDefinition;
+    }
 
-                    defineEndpoints.add(deviceDefinition);
+    /**
+     * Compile endpoint 'meta' to typed specs once, so raw json isn't kept and converters don't parse it on every initialisation
+     */
+    private static void compileMetadata(EndpointDefinition endpointDefinition, JsonNode metaNode, JsonNode deviceNode) {
+        if (metaNode.isMissingNode() || metaNode.isNull()) {
+            return;
+        }
+        if (metaNode.has("scale")) {
+            endpointDefinition.setScale(metaNode.get("scale").asDouble());
+        }
+        JsonNode reportNode = metaNode.path("report");
+        if (reportNode.isObject()) {
+            endpointDefinition.setReport(new ReportSpec(getNumber(reportNode, "min"), getNumber(reportNode, "max"),
+                getNumber(reportNode, "change")));
+        }
+        Map<ButtonPressType, ButtonEventSpec> buttonEvents = new EnumMap<>(ButtonPressType.class);
+        for (ButtonPressType pressType : ButtonPressType.values()) {
+            // SHORT_PRESS -> 'shortpress_cluster_id', ...
+            String prefix = pressType.name().replace("_", "").toLowerCase() + "_";
+            JsonNode clusterNode = metaNode.get(prefix + "cluster_id");
+            if (clusterNode != null) {
+                try {
+                    buttonEvents.put(pressType, compileButtonEvent(metaNode, prefix, parseId(clusterNode)));
+                } catch (Exception ex) {
+                    log.warn("Skip {} event of endpoint {} in device {}. Msg: {}", pressType, endpointDefinition.getId(),
+                        deviceNode.path("models"), ex.getMessage());
                 }
             }
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
         }
+        endpointDefinition.setButtonEvents(Map.copyOf(buttonEvents));
+    }
+
+    private static ButtonEventSpec compileButtonEvent(JsonNode metaNode, String prefix, int clusterId) {
+        boolean hasCommand = metaNode.has(prefix + "command_id");
+        boolean hasAttribute = metaNode.has(prefix + "attribute_id");
+        if (hasCommand == hasAttribute) {
+            throw new IllegalStateException("Exactly one of command or attribute has to be specified");
+        }
+        if (hasCommand) {
+            String parameterName = metaNode.path(prefix + "parameter_name").asText(null);
+            String parameterValue = metaNode.path(prefix + "parameter_value").asText(null);
+            if ((parameterName == null) != (parameterValue == null)) {
+                throw new IllegalStateException("Both command parameter name and value have to be specified");
+            }
+            return new ButtonEventSpec(clusterId, parseId(metaNode.get(prefix + "command_id")), parameterName, parameterValue, null, null);
+        }
+        String attributeValue = metaNode.path(prefix + "attribute_value").asText(null);
+        if (attributeValue == null) {
+            throw new IllegalStateException("No attribute value specified");
+        }
+        return new ButtonEventSpec(clusterId, null, null, null, parseId(metaNode.get(prefix + "attribute_id")), attributeValue);
     }
 
-    private static Exception noKeyFound(JsonNode deviceNode, String key) {
+    /**
+     * Id may be number or decimal/hex ('0x0012') string
+     */
+    private static int parseId(JsonNode idNode) {
+        String id = idNode.asText();
+        return id.startsWith("0x") ? Integer.parseInt(id.substring(2), 16) : Integer.parseInt(id);
+    }
+
+    private static IllegalStateException noKeyFound(JsonNode deviceNode, String key) {
         return new IllegalStateException("Unable to find key: " + key + " in device: " + deviceNode);
     }
 
-    public static Optional<DeviceConfiguration> getDeviceDefinition(@Nullable String modelIdentifier) {
-        if (modelIdentifier != null) {
-            for (DeviceConfiguration defineEndpoint : defineEndpoints) {
-                if (defineEndpoint.getModels().contains(modelIdentifier)) {
-                    return Optional.of(defineEndpoint);
+    /**
+     * Immutable lookup structures of one registry version
+     */
+    @RequiredArgsConstructor
+    public static final class CompiledDefinitions {
+
+        @Getter private final List<DeviceConfiguration> definitions;
+        // exact model identifier to definition. First defined wins
+        private final Map<String, DeviceConfiguration> definitionByModel;
+        // model family prefix (without '*') to definition
+        private final Map<String, DeviceConfiguration> definitionByModelFamily;
+        private final int maxModelFamilyLength;
+
+        public Optional<DeviceConfiguration> find(@Nullable String modelIdentifier) {
+            if (modelIdentifier == null) {
+                return Optional.empty();
+            }
+            DeviceConfiguration deviceConfiguration = definitionByModel.get(modelIdentifier);
+            if (deviceConfiguration == null && !definitionByModelFamily.isEmpty()) {
+                for (int length = Math.min(modelIdentifier.length(), maxModelFamilyLength); length > 0; length--) {
+                    deviceConfiguration = definitionByModelFamily.get(modelIdentifier.substring(0, length));
+                    if (deviceConfiguration != null) {
+                        break;
+                    }
                 }
             }
+            return Optional.ofNullable(deviceConfiguration);
         }
-        return Optional.empty();
     }
 }
@@ -0,0 +1,216 @@
+package org.homio.bundle.zigbee.util;
+
+import static java.util.Map.entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Build step which converts Zigbee2MQTT device definitions (output of 'zigbee2mqtt/bridge/devices') to {@link DeviceCatalogue}.
+ * <p>
+ * Exposes are mapped to converters by property, endpoint is the first device endpoint with converter cluster. Configured reporting
+ * of exposed attribute is stored as endpoint default reporting. Devices without any supported expose are skipped.
+ * <p>
+ * Usage: Z2MDefinitionImporter &lt;z2m devices json&gt; &lt;catalogue file&gt;. Catalogue is built only if 'z2m.devices' property is
+ * passed to maven (see 'z2m-catalogue' profile), no catalogue is bundled by default.
+ */
+@Log4j2
+public final class Z2MDefinitionImporter {
+
+    private static final String DEFAULT_ICON = "fas fa-microchip";
+    private static final String DEFAULT_ICON_COLOR = "#57A4D1";
+
+    // z2m expose property to converter, herdsman cluster and attribute
+    private static final Map<String, ExposeMapping> EXPOSES = Map.ofEntries(
+        entry("battery", new ExposeMapping("battery_level", "genPowerCfg", "batteryPercentageRemaining", "fas fa-battery-half")),
+        entry("voltage", new ExposeMapping("battery_voltage", "genPowerCfg", "batteryVoltage", "fas fa-battery-half")),
+        entry("battery_low", new ExposeMapping("battery_alarm", "genPowerCfg", "batteryAlarmState", "fas fa-battery-quarter")),
+        entry("occupancy", new ExposeMapping("sensor_occupancy", "msOccupancySensing", "occupancy", "fas fa-person-walking")),
+        entry("illuminance", new ExposeMapping("measurement_illuminance", "msIlluminanceMeasurement", "measuredValue", "fas fa-sun")),
+        entry("illuminance_lux", new ExposeMapping("measurement_illuminance", "msIlluminanceMeasurement", "measuredValue", "fas fa-sun")),
+        entry("temperature", new ExposeMapping("measurement_temperature", "msTemperatureMeasurement",
+            "measuredValue", "fas fa-temperature-half")),
+        entry("humidity", new ExposeMapping("measurement_relativehumidity", "msRelativeHumidity", "measuredValue", "fas fa-droplet")),
+        entry("pressure", new ExposeMapping("measurement_pressure", "msPressureMeasurement", "measuredValue", "fas fa-gauge")),
+        entry("state", new ExposeMapping("switch_onoff", "genOnOff", "onOff", "fas fa-toggle-on")),
+        entry("brightness", new ExposeMapping("switch_level", "genLevelCtrl", "currentLevel", "fas fa-lightbulb")),
+        entry("color_temp", new ExposeMapping("color_temperature", "lightingColorCtrl", "colorTemperature", "fas fa-lightbulb")),
+        entry("color", new ExposeMapping("color_color", "lightingColorCtrl", "currentX", "fas fa-palette")),
+        entry("power", new ExposeMapping("electrical_activepower", "haElectricalMeasurement", "activePower", "fas fa-plug")),
+        entry("current", new ExposeMapping("electrical_rmscurrent", "haElectricalMeasurement", "rmsCurrent", "fas fa-plug")),
+        entry("energy", new ExposeMapping("metering_sumdelivered", "seMetering", "currentSummDelivered", "fas fa-plug")),
+        entry("water_leak", new ExposeMapping("ias_water", "ssIasZone", "zoneStatus", "fas fa-water")),
+        entry("smoke", new ExposeMapping("ias_fire", "ssIasZone", "zoneStatus", "fas fa-fire")),
+        entry("tamper", new ExposeMapping("ias_tamper", "ssIasZone", "zoneStatus", "fas fa-hand")),
+        entry("vibration", new ExposeMapping("ias_vibration", "ssIasZone", "zoneStatus", "fas fa-wave-square")),
+        entry("position", new ExposeMapping("windowcovering_lift", "closuresWindowCovering",
+            "currentPositionLiftPercentage", "fas fa-person-booth")),
+        entry("local_temperature", new ExposeMapping("thermostat_localtemp", "hvacThermostat", "localTemp", "fas fa-temperature-half")),
+        entry("system_mode", new ExposeMapping("thermostat_systemmode", "hvacThermostat", "systemMode", "fas fa-temperature-half")),
+        entry("occupied_heating_setpoint", new ExposeMapping("thermostat_occupiedheating", "hvacThermostat",
+            "occupiedHeatingSetpoint", "fas fa-temperature-half")),
+        entry("occupied_cooling_setpoint", new ExposeMapping("thermostat_occupiedcooling", "hvacThermostat",
+            "occupiedCoolingSetpoint", "fas fa-temperature-half")));
+
+    // zigbee-herdsman cluster name to cluster id
+    private static final Map<String, Integer> CLUSTERS = Map.ofEntries(
+        entry("genPowerCfg", 0x0001),
+        entry("genOnOff", 0x0006),
+        entry("genLevelCtrl", 0x0008),
+        entry("closuresWindowCovering", 0x0102),
+        entry("hvacThermostat", 0x0201),
+        entry("lightingColorCtrl", 0x0300),
+        entry("msIlluminanceMeasurement", 0x0400),
+        entry("msTemperatureMeasurement", 0x0402),
+        entry("msPressureMeasurement", 0x0403),
+        entry("msRelativeHumidity", 0x0405),
+        entry("msOccupancySensing", 0x0406),
+        entry("ssIasZone", 0x0500),
+        entry("seMetering", 0x0702),
+        entry("haElectricalMeasurement", 0x0B04));
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: Z2MDefinitionImporter <z2m devices json> <catalogue file>");
+        }
+        // no homio runtime during build, so use own mapper
+        JsonNode devicesNode = new ObjectMapper().readTree(Path.of(args[0]).toFile());
+        List<DeviceConfiguration> definitions = convert(devicesNode);
+        Path output = Path.of(args[1]);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream outputStream = Files.newOutputStream(output)) {
+            DeviceCatalogue.write(definitions, outputStream);
+        }
+        log.info("Imported {} device definitions from {} to {}", definitions.size(), args[0], output);
+    }
+
+    /**
+     * @return definitions of supported devices. First device with same model identifier wins
+     */
+    public static List<DeviceConfiguration> convert(JsonNode devicesNode) {
+        Map<String, DeviceConfiguration> definitions = new LinkedHashMap<>();
+        for (JsonNode deviceNode : devicesNode) {
+            JsonNode definitionNode = deviceNode.path("definition");
+            String modelIdentifier = deviceNode.path("model_id").asText(null);
+            if (!definitionNode.isObject() || modelIdentifier == null || definitions.containsKey(modelIdentifier)) {
+                continue;
+            }
+            DeviceConfiguration definition = convertDevice(deviceNode, definitionNode, modelIdentifier);
+            if (definition.getEndpoints().isEmpty()) {
+                log.debug("Skip z2m device {}. No supported exposes", modelIdentifier);
+            } else {
+                definitions.put(modelIdentifier, definition);
+            }
+        }
+        return new ArrayList<>(definitions.values());
+    }
+
+    private static DeviceConfiguration convertDevice(JsonNode deviceNode, JsonNode definitionNode, String modelIdentifier) {
+        var definition = new DeviceConfiguration();
+        definition.setModels(Set.of(modelIdentifier));
+        definition.setVendor(definitionNode.path("vendor").asText(deviceNode.path("manufacturer").asText("Unknown")));
+        definition.setIconColor(DEFAULT_ICON_COLOR);
+        definition.setDefinitionHash(definitionNode.hashCode());
+
+        List<JsonNode> exposes = new ArrayList<>();
+        flattenExposes(definitionNode.path("exposes"), exposes);
+        for (JsonNode expose : exposes) {
+            ExposeMapping mapping = EXPOSES.get(expose.path("property").asText(expose.path("name").asText()));
+            if (mapping == null) {
+                continue;
+            }
+            int endpointId = findEndpoint(deviceNode.path("endpoints"), mapping.cluster);
+            if (definition.getEndpoint(endpointId, mapping.typeId) != null) {
+                continue; // i.e. 'illuminance' and 'illuminance_lux'
+            }
+            if (definition.getIcon() == null) {
+                definition.setIcon(mapping.icon);
+            }
+            var endpoint = new EndpointDefinition();
+            endpoint.setTypeId(mapping.typeId);
+            endpoint.setEndpoint(endpointId);
+            endpoint.setInputClusters(Set.of(CLUSTERS.get(mapping.cluster)));
+            endpoint.setReport(findReporting(deviceNode.path("endpoints").path(String.valueOf(endpointId)), mapping));
+            definition.addEndpoint(endpoint);
+        }
+        if (definition.getIcon() == null) {
+            definition.setIcon(DEFAULT_ICON);
+        }
+        return definition;
+    }
+
+    /**
+     * Composite exposes (light, switch, climate) hold actual properties in 'features'. Mapped composite ('color') is kept as is
+     */
+    private static void flattenExposes(JsonNode exposesNode, List<JsonNode> exposes) {
+        for (JsonNode expose : exposesNode) {
+            if (expose.has("features") && !EXPOSES.containsKey(expose.path("property").asText())) {
+                flattenExposes(expose.get("features"), exposes);
+            } else {
+                exposes.add(expose);
+            }
+        }
+    }
+
+    /**
+     * @return first endpoint with input cluster or lowest endpoint if cluster isn't reported by device
+     */
+    private static int findEndpoint(JsonNode endpointsNode, String cluster) {
+        int lowestEndpoint = Integer.MAX_VALUE;
+        int clusterEndpoint = Integer.MAX_VALUE;
+        for (Iterator<Entry<String, JsonNode>> iterator = endpointsNode.fields(); iterator.hasNext(); ) {
+            Entry<String, JsonNode> entry = iterator.next();
+            int endpointId = Integer.parseInt(entry.getKey());
+            lowestEndpoint = Math.min(lowestEndpoint, endpointId);
+            for (JsonNode inputCluster : entry.getValue().path("clusters").path("input")) {
+                if (cluster.equals(inputCluster.asText())) {
+                    clusterEndpoint = Math.min(clusterEndpoint, endpointId);
+                }
+            }
+        }
+        if (clusterEndpoint != Integer.MAX_VALUE) {
+            return clusterEndpoint;
+        }
+        return lowestEndpoint == Integer.MAX_VALUE ? 1 : lowestEndpoint;
+    }
+
+    /**
+     * @return default reporting if device has configured reporting of expose attribute
+     */
+    private static @Nullable ReportSpec findReporting(JsonNode endpointNode, ExposeMapping mapping) {
+        for (JsonNode reporting : endpointNode.path("configured_reportings")) {
+            if (mapping.cluster.equals(reporting.path("cluster").asText())
+                && mapping.attribute.equals(reporting.path("attribute").asText())) {
+                JsonNode change = reporting.path("reportable_change");
+                return new ReportSpec(reporting.path("minimum_report_interval").asInt(), reporting.path("maximum_report_interval").asInt(),
+                    change.isNumber() ? change.asInt() : null);
+            }
+        }
+        return null;
+    }
+
+    @RequiredArgsConstructor
+    private static class ExposeMapping {
+
+        private final String typeId;
+        private final String cluster;
+        private final String attribute;
+        private final String icon;
+    }
+}
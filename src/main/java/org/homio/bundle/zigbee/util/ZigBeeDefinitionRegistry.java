@@ -0,0 +1,140 @@
+package org.homio.bundle.zigbee.util;
+
+import static org.homio.bundle.api.util.CommonUtils.OBJECT_MAPPER;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.homio.bundle.api.util.CommonUtils;
+import org.homio.bundle.zigbee.util.DeviceConfigurations.CompiledDefinitions;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Versioned registry of device definitions and cluster configurations.
+ * <p>
+ * Bundled 'device-definitions.json' and 'cluster-configuration.json' together with user files with same names from 'zigbee' directory
+ * are compiled to immutable lookup structures. New version replaces previous one atomically, so readers see either old or new
+ * definitions but never partially loaded ones. If user file is broken, previous version stays active.
+ */
+@Log4j2
+public final class ZigBeeDefinitionRegistry {
+
+    public static final String DEVICE_DEFINITIONS = "device-definitions.json";
+    public static final String CLUSTER_CONFIGURATION = "cluster-configuration.json";
+
+    private static volatile Snapshot snapshot = loadInitial();
+
+    /**
+     * @return currently active definitions. Never changes, so fetch once if more than one lookup has to be consistent
+     */
+    public static Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public static int getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * Reload definitions if any user file has been created, changed or removed since last load
+     *
+     * @return true if new version has been activated
+     */
+    public static synchronized boolean reloadIfModified() {
+        long lastModified = lastModified();
+        if (lastModified == snapshot.userFilesModified) {
+            return false;
+        }
+        try {
+            snapshot = load(snapshot.version + 1, lastModified, true);
+            log.info("Activated ZigBee definitions version {}. Devices: {}. Clusters: {}",
+                snapshot.version, snapshot.devices.getDefinitions().size(), snapshot.clusterConfigurations.size());
+            return true;
+        } catch (Exception ex) {
+            log.error("Unable to load ZigBee definitions. Keep version {}. Msg: {}", snapshot.version, CommonUtils.getErrorMessage(ex));
+            // don't try load same broken file again
+            snapshot = new Snapshot(snapshot.version, lastModified, snapshot.devices, snapshot.clusterConfigurations);
+            return false;
+        }
+    }
+
+    private static Snapshot loadInitial() {
+        long lastModified = lastModified();
+        try {
+            return load(0, lastModified, true);
+        } catch (Exception ex) {
+            log.error("Unable to load user ZigBee definitions. Use bundled definitions only. Msg: {}", CommonUtils.getErrorMessage(ex));
+            return load(0, lastModified, false);
+        }
+    }
+
+    private static Snapshot load(int version, long userFilesModified, boolean withUserFiles) {
+        try {
+            // user definitions go first to override bundled ones with same model
+            List<JsonNode> deviceSources = new ArrayList<>();
+            ObjectNode userDevices = withUserFiles ? readUserFile(DEVICE_DEFINITIONS) : null;
+            if (userDevices != null) {
+                deviceSources.add(userDevices);
+            }
+            deviceSources.add(CommonUtils.readAndMergeJSON(DEVICE_DEFINITIONS, OBJECT_MAPPER.createObjectNode()));
+
+            // user cluster configuration is merged over bundled one
+            ObjectNode clusters = CommonUtils.readAndMergeJSON(CLUSTER_CONFIGURATION, OBJECT_MAPPER.createObjectNode());
+            ObjectNode userClusters = withUserFiles ? readUserFile(CLUSTER_CONFIGURATION) : null;
+            if (userClusters != null) {
+                OBJECT_MAPPER.readerForUpdating(clusters).readValue(userClusters);
+            }
+
+            return new Snapshot(version, userFilesModified,
+                DeviceConfigurations.compile(deviceSources),
+                ClusterConfigurations.compile(clusters));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static @Nullable ObjectNode readUserFile(String fileName) throws IOException {
+        Path path = getUserFile(fileName);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        JsonNode jsonNode = OBJECT_MAPPER.readTree(path.toFile());
+        if (!(jsonNode instanceof ObjectNode)) {
+            throw new IllegalStateException("File " + path + " must contain json object");
+        }
+        return (ObjectNode) jsonNode;
+    }
+
+    /**
+     * Combined modification time of user files. Changes if any file is created, updated or removed
+     */
+    private static long lastModified() {
+        long lastModified = 0;
+        for (String fileName : List.of(DEVICE_DEFINITIONS, CLUSTER_CONFIGURATION)) {
+            lastModified = 31 * lastModified + getUserFile(fileName).toFile().lastModified();
+        }
+        return lastModified;
+    }
+
+    private static Path getUserFile(String fileName) {
+        return CommonUtils.resolvePath("zigbee").resolve(fileName);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Snapshot {
+
+        private final int version;
+        private final long userFilesModified;
+        private final CompiledDefinitions devices;
+        private final Map<Integer, ClusterConfiguration> clusterConfigurations;
+    }
+}
@@ -0,0 +1,125 @@
+package org.homio.bundle.zigbee.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class ByteRingBufferTest {
+
+    @Test
+    public void capacityRoundedToPowerOfTwo() {
+        assertEquals(1, new ByteRingBuffer(1).capacity());
+        assertEquals(8, new ByteRingBuffer(5).capacity());
+        assertEquals(8, new ByteRingBuffer(8).capacity());
+    }
+
+    @Test
+    public void writeReadWrapAround() {
+        ByteRingBuffer buffer = new ByteRingBuffer(8);
+        assertEquals(0, buffer.write(new byte[]{1, 2, 3, 4, 5, 6}));
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, read(buffer, 4));
+
+        // 2 bytes left at the end, next 6 bytes wrap to the start of array
+        assertEquals(0, buffer.write(new byte[]{7, 8, 9, 10, 11, 12}));
+        assertEquals(8, buffer.available());
+        assertArrayEquals(new byte[]{5, 6, 7, 8, 9, 10, 11, 12}, read(buffer, 8));
+        assertEquals(0, buffer.available());
+    }
+
+    @Test
+    public void writeReturnsOverflow() {
+        ByteRingBuffer buffer = new ByteRingBuffer(4);
+        assertEquals(2, buffer.write(new byte[]{1, 2, 3, 4, 5, 6}));
+        assertEquals(4, buffer.available());
+        assertEquals(1, buffer.read(0));
+        assertEquals(0, buffer.write(new byte[]{(byte) 0xFF}));
+        assertEquals(2, buffer.read(0));
+        assertEquals(3, buffer.read(0));
+        assertEquals(4, buffer.read(0));
+        assertEquals(0xFF, buffer.read(0));
+    }
+
+    @Test
+    public void readTimeout() {
+        ByteRingBuffer buffer = new ByteRingBuffer(4);
+        long start = System.nanoTime();
+        assertEquals(-1, buffer.read(50));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(-1, buffer.read(0));
+    }
+
+    @Test
+    public void writeWakesUpBlockedReader() throws Exception {
+        ByteRingBuffer buffer = new ByteRingBuffer(16);
+        CompletableFuture<Integer> reader = CompletableFuture.supplyAsync(() -> buffer.read(10000));
+        Thread.sleep(50);
+        long start = System.nanoTime();
+        buffer.write(new byte[]{42});
+        assertEquals(42, reader.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void closeReleasesBlockedReader() throws Exception {
+        ByteRingBuffer buffer = new ByteRingBuffer(16);
+        CompletableFuture<Integer> reader = CompletableFuture.supplyAsync(() -> buffer.read(10000));
+        Thread.sleep(50);
+        long start = System.nanoTime();
+        buffer.close();
+        assertEquals(-1, reader.get(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+        // close without waiting reader releases next read, following reads wait for data again
+        buffer.close();
+        assertEquals(-1, buffer.read(10000));
+        buffer.write(new byte[]{7});
+        assertEquals(7, buffer.read(10000));
+    }
+
+    @Test
+    public void clearFromOtherThread() throws Exception {
+        ByteRingBuffer buffer = new ByteRingBuffer(16);
+        buffer.write(new byte[]{1, 2, 3});
+        CompletableFuture.runAsync(buffer::clear).get(5, TimeUnit.SECONDS);
+        assertEquals(0, buffer.available());
+        assertEquals(-1, buffer.read(0));
+        buffer.write(new byte[]{4});
+        assertEquals(4, buffer.read(0));
+    }
+
+    @Test
+    public void producerConsumerKeepsOrder() throws Exception {
+        ByteRingBuffer buffer = new ByteRingBuffer(64);
+        int total = 100_000;
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            int next = 0;
+            while (next < total) {
+                int count = Math.min(17, total - next);
+                byte[] chunk = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    chunk[i] = (byte) (next + i);
+                }
+                int rejected = buffer.write(chunk);
+                next += count - rejected;
+            }
+        });
+        for (int received = 0; received < total; received++) {
+            int value = buffer.read(5000);
+            assertTrue(value >= 0);
+            assertEquals((byte) received, (byte) value);
+        }
+        producer.get(5, TimeUnit.SECONDS);
+    }
+
+    private static byte[] read(ByteRingBuffer buffer, int count) {
+        byte[] target = new byte[count];
+        for (int i = 0; i < count; i++) {
+            target[i] = (byte) buffer.read(0);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,228 @@
+package org.homio.bundle.zigbee.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zsmartsystems.zigbee.IeeeAddress;
+import com.zsmartsystems.zigbee.database.ZclAttributeDao;
+import com.zsmartsystems.zigbee.database.ZclClusterDao;
+import com.zsmartsystems.zigbee.database.ZigBeeEndpointDao;
+import com.zsmartsystems.zigbee.database.ZigBeeNodeDao;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ZigBeeBinaryDataStoreTest {
+
+    private static final IeeeAddress NODE_1 = new IeeeAddress("00158D00030217E8");
+    private static final IeeeAddress NODE_2 = new IeeeAddress("00158D0003021700");
+
+    @TempDir
+    public Path directory;
+
+    @Test
+    public void writeReadRoundTrip() {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_1, 0x1234, 1, 21));
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 22));
+        store.close();
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1, NODE_2), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_1), 0x1234, 1, 21);
+        assertNode(store.readNode(NODE_2), 0x5678, 2, 22);
+        store.removeNode(NODE_2);
+        store.close();
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1), store.readNetworkNodes());
+        store.close();
+    }
+
+    @Test
+    public void replayChangedPartsOnTopOfSnapshot() throws IOException {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_1, 0x1234, 1, 21));
+        long snapshotSize = getLogSize();
+
+        // network address and one cluster are changed, so only node header and this cluster are appended
+        store.writeNode(createNode(NODE_1, 0x4321, 1, 25));
+        long deltaSize = getLogSize() - snapshotSize;
+        assertTrue(deltaSize > 0 && deltaSize < snapshotSize);
+
+        // nothing changed - nothing written
+        store.writeNode(createNode(NODE_1, 0x4321, 1, 25));
+        assertEquals(snapshotSize + deltaSize, getLogSize());
+        store.close();
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_1), 0x4321, 1, 25);
+        store.close();
+    }
+
+    @Test
+    public void cutTornTail() throws IOException {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_1, 0x1234, 1, 21));
+        long validSize = getLogSize();
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 22));
+        store.close();
+
+        // power loss in the middle of last record
+        Path segment = getSegments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_1), 0x1234, 1, 21);
+        assertEquals(validSize, Files.size(segment));
+
+        // records appended after cut tail are readable
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 23));
+        store.close();
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1, NODE_2), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_2), 0x5678, 2, 23);
+        store.close();
+    }
+
+    @Test
+    public void compactOutdatedRecords() throws IOException {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 22));
+        Path firstSegment = directory.resolve("segment-000001.zlog");
+        int writes = 0;
+        // endpoint layout change forces full snapshot on every write, so log rolls over to next segment and gets compacted
+        while (Files.exists(firstSegment)) {
+            assertTrue(writes < 100_000);
+            store.writeNode(createNode(NODE_1, 0x1234, 1 + writes % 2, writes));
+            writes++;
+        }
+        List<Path> segments = getSegments();
+        assertEquals(1, segments.size());
+        assertTrue(Files.size(segments.get(0)) < 64 * 1024);
+        assertFalse(listFiles().stream().anyMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+
+        // compacted segment is active one
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 23));
+        assertNode(store.readNode(NODE_1), 0x1234, 1 + (writes - 1) % 2, writes - 1);
+        store.close();
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1, NODE_2), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_1), 0x1234, 1 + (writes - 1) % 2, writes - 1);
+        assertNode(store.readNode(NODE_2), 0x5678, 2, 23);
+        store.close();
+    }
+
+    @Test
+    public void deleteUnfinishedCompaction() throws IOException {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_1, 0x1234, 1, 21));
+        store.close();
+        Path tempSegment = Files.write(directory.resolve("segment-000002.zlog.tmp"), new byte[]{1, 2, 3});
+
+        store = createStore();
+        assertEquals(Set.of(NODE_1), store.readNetworkNodes());
+        assertFalse(Files.exists(tempSegment));
+        store.close();
+    }
+
+    @Test
+    public void syncWithXmlStoreOnStoreTypeSwitch() {
+        ZigBeeBinaryDataStore store = createStore();
+        store.writeNode(createNode(NODE_1, 0x1234, 1, 21));
+        store.writeNode(createNode(NODE_2, 0x5678, 2, 22));
+        store.close();
+
+        // switch to xml store - log state is exported to xml files
+        ZigBeeDataStore xmlStore = new ZigBeeDataStore(directory, null, "test");
+        assertEquals(Set.of(NODE_1, NODE_2), xmlStore.readNetworkNodes());
+        assertNode(xmlStore.readNode(NODE_2), 0x5678, 2, 22);
+        xmlStore.removeNode(NODE_2);
+        xmlStore.writeNode(createNode(NODE_1, 0x1234, 1, 30));
+        xmlStore.close();
+
+        // switch back - changed xml files are imported again
+        store = createStore();
+        assertEquals(Set.of(NODE_1), store.readNetworkNodes());
+        assertNode(store.readNode(NODE_1), 0x1234, 1, 30);
+        store.close();
+    }
+
+    private ZigBeeBinaryDataStore createStore() {
+        // entity context is used only to restore node from db if store is broken
+        return new ZigBeeBinaryDataStore(directory, null, "test");
+    }
+
+    private List<Path> getSegments() throws IOException {
+        return listFiles().stream().filter(path -> path.getFileName().toString().endsWith(".zlog")).sorted().collect(Collectors.toList());
+    }
+
+    private long getLogSize() throws IOException {
+        long size = 0;
+        for (Path segment : getSegments()) {
+            size += Files.size(segment);
+        }
+        return size;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static ZigBeeNodeDao createNode(IeeeAddress address, int networkAddress, int endpointId, int temperature) {
+        ZigBeeEndpointDao endpoint = new ZigBeeEndpointDao();
+        endpoint.setEndpointId(endpointId);
+        endpoint.setProfileId(0x0104);
+        endpoint.setInputClusters(new ArrayList<>(List.of(createCluster(0x0006, 1), createCluster(0x0402, temperature))));
+
+        ZigBeeNodeDao node = new ZigBeeNodeDao();
+        node.setIeeeAddress(address);
+        node.setNetworkAddress(networkAddress);
+        node.setEndpoints(new ArrayList<>(List.of(endpoint)));
+        return node;
+    }
+
+    private static ZclClusterDao createCluster(int clusterId, int value) {
+        ZclAttributeDao attribute = new ZclAttributeDao();
+        attribute.setId(0);
+        attribute.setLastValue(value);
+        Map<Integer, ZclAttributeDao> attributes = new HashMap<>();
+        attributes.put(0, attribute);
+
+        ZclClusterDao cluster = new ZclClusterDao();
+        cluster.setClusterId(clusterId);
+        cluster.setAttributes(attributes);
+        return cluster;
+    }
+
+    private static void assertNode(ZigBeeNodeDao node, int networkAddress, int endpointId, int temperature) {
+        assertEquals(networkAddress, node.getNetworkAddress());
+        ZigBeeEndpointDao endpoint = node.getEndpoints().get(0);
+        assertEquals(endpointId, endpoint.getEndpointId());
+        assertEquals(2, endpoint.getInputClusters().size());
+        for (ZclClusterDao cluster : endpoint.getInputClusters()) {
+            Object value = cluster.getAttributes().get(0).getLastValue();
+            assertEquals(cluster.getClusterId() == 0x0402 ? temperature : 1, value);
+        }
+    }
+}
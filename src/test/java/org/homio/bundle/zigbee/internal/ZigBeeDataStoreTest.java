@@ -0,0 +1,56 @@
+package org.homio.bundle.zigbee.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zsmartsystems.zigbee.IeeeAddress;
+import com.zsmartsystems.zigbee.database.ZigBeeNodeDao;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ZigBeeDataStoreTest {
+
+    private static final IeeeAddress NODE = new IeeeAddress("00158D00030217E8");
+
+    @TempDir
+    public Path directory;
+
+    @SneakyThrows
+    @Test
+    public void skipWriteOfUnchangedNode() {
+        ZigBeeDataStore store = new ZigBeeDataStore(directory, null, "test");
+        Path nodePath = directory.resolve(NODE + ".xml");
+        store.writeNode(createNode(0x1234));
+        assertTrue(Files.exists(nodePath));
+
+        // same node isn't written again
+        Files.delete(nodePath);
+        store.writeNode(createNode(0x1234));
+        assertFalse(Files.exists(nodePath));
+
+        store.writeNode(createNode(0x4321));
+        assertTrue(Files.exists(nodePath));
+        store.close();
+
+        // read node file is known as stored state
+        store = new ZigBeeDataStore(directory, null, "test");
+        assertEquals(Set.of(NODE), store.readNetworkNodes());
+        assertEquals(0x4321, store.readNode(NODE).getNetworkAddress());
+        Files.delete(nodePath);
+        store.writeNode(createNode(0x4321));
+        assertFalse(Files.exists(nodePath));
+        store.close();
+    }
+
+    private static ZigBeeNodeDao createNode(int networkAddress) {
+        ZigBeeNodeDao node = new ZigBeeNodeDao();
+        node.setIeeeAddress(NODE);
+        node.setNetworkAddress(networkAddress);
+        return node;
+    }
+}
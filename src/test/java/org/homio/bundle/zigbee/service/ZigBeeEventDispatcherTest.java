@@ -0,0 +1,117 @@
+package org.homio.bundle.zigbee.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ZigBeeEventDispatcherTest {
+
+    private static final String DEVICE = "00158D00030217E8";
+
+    private final ZigBeeEventDispatcher dispatcher = new ZigBeeEventDispatcher("test");
+
+    @AfterEach
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void mergeQueuedTasksOfSameEndpoint() throws Exception {
+        CountDownLatch release = blockShard();
+        List<String> events = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add("endpoint_1=1"));
+        dispatcher.dispatch(DEVICE, "endpoint_2", () -> events.add("endpoint_2=1"));
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add("endpoint_1=2"));
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add("endpoint_1=3"));
+        release.countDown();
+        awaitDispatched();
+
+        // last value of endpoint on place of its first queued task, other endpoints are not affected
+        assertEquals(List.of("endpoint_1=3", "endpoint_2=1"), events);
+        assertTrue(dispatcher.getStatistic().contains("Merged: 2"));
+    }
+
+    @Test
+    public void neverMergeTasksWithoutKey() throws Exception {
+        CountDownLatch release = blockShard();
+        List<String> events = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(DEVICE, null, () -> events.add("single"));
+        dispatcher.dispatch(DEVICE, null, () -> events.add("double"));
+        dispatcher.dispatch(DEVICE, null, () -> events.add("single"));
+        release.countDown();
+        awaitDispatched();
+        assertEquals(List.of("single", "double", "single"), events);
+    }
+
+    @Test
+    public void keepOrderOfDeviceEvents() throws Exception {
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            dispatcher.dispatch(DEVICE, "endpoint_" + i, () -> events.add(value));
+        }
+        awaitDispatched();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, events.get(i));
+        }
+    }
+
+    @Test
+    public void taskDispatchedAgainAfterStart() throws Exception {
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add(1));
+        awaitDispatched();
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add(2));
+        awaitDispatched();
+        assertEquals(List.of(1, 2), events);
+    }
+
+    @Test
+    public void clearDropsQueuedTasks() throws Exception {
+        CountDownLatch release = blockShard();
+        List<Integer> events = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add(1));
+        dispatcher.clear();
+        release.countDown();
+        awaitDispatched();
+        assertTrue(events.isEmpty());
+
+        // dispatcher stays usable
+        dispatcher.dispatch(DEVICE, "endpoint_1", () -> events.add(2));
+        awaitDispatched();
+        assertEquals(List.of(2), events);
+    }
+
+    /**
+     * Occupy shard thread of device until returned latch released
+     */
+    private CountDownLatch blockShard() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(DEVICE, "block", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    /**
+     * Wait till all tasks queued to device shard before this call are done
+     */
+    private void awaitDispatched() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch(DEVICE, "barrier", done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
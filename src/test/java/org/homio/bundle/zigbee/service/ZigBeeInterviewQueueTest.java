@@ -0,0 +1,137 @@
+package org.homio.bundle.zigbee.service;
+
+import static org.homio.bundle.zigbee.service.ZigBeeInterviewQueue.PRIORITY_DEFAULT;
+import static org.homio.bundle.zigbee.service.ZigBeeInterviewQueue.PRIORITY_ROUTER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.homio.bundle.api.EntityContextBGP.ThreadContext;
+import org.junit.jupiter.api.Test;
+
+public class ZigBeeInterviewQueueTest {
+
+    // zero admit interval, clock doesn't need to move
+    private static final int UNLIMITED_RATE = Integer.MAX_VALUE;
+
+    private final AtomicLong clock = new AtomicLong(100_000);
+    private final List<Long> delays = new ArrayList<>();
+    private final List<Runnable> delayedTasks = new ArrayList<>();
+    private final List<String> started = new ArrayList<>();
+    private final List<Runnable> running = new ArrayList<>();
+
+    @Test
+    public void admitByPriorityThenOrder() {
+        ZigBeeInterviewQueue queue = createQueue(1, UNLIMITED_RATE);
+        queue.submit(PRIORITY_DEFAULT, 0, launcher("first"));
+        queue.submit(PRIORITY_DEFAULT, 20, launcher("default_20"));
+        queue.submit(PRIORITY_DEFAULT, 10, launcher("default_10"));
+        queue.submit(PRIORITY_ROUTER, 30, launcher("router_30"));
+        queue.submit(PRIORITY_DEFAULT, 10, launcher("default_10_second"));
+        assertEquals(List.of("first"), started);
+        assertEquals(4, queue.getQueued());
+
+        while (queue.getRunning() > 0) {
+            running.remove(0).run();
+        }
+        assertEquals(List.of("first", "router_30", "default_10", "default_10_second", "default_20"), started);
+        assertNull(queue.getProgress());
+    }
+
+    @Test
+    public void limitConcurrentInterviews() {
+        ZigBeeInterviewQueue queue = createQueue(2, UNLIMITED_RATE);
+        for (int i = 0; i < 5; i++) {
+            queue.submit(launcher("interview_" + i));
+        }
+        assertEquals(2, queue.getRunning());
+        assertEquals(3, queue.getQueued());
+        assertEquals("0/5 done. Running: 2. Queued: 3", queue.getProgress());
+
+        // done callback is idempotent
+        Runnable done = running.remove(0);
+        done.run();
+        done.run();
+        assertEquals(2, queue.getRunning());
+        assertEquals(2, queue.getQueued());
+        assertEquals("1/5 done. Running: 2. Queued: 2", queue.getProgress());
+    }
+
+    @Test
+    public void limitInterviewRate() {
+        // 30 per minute - one interview per 2s
+        ZigBeeInterviewQueue queue = createQueue(10, 30);
+        queue.submit(launcher("interview_0"));
+        queue.submit(launcher("interview_1"));
+        queue.submit(launcher("interview_2"));
+        assertEquals(List.of("interview_0"), started);
+        assertEquals(List.of(2000L), delays);
+
+        // admit job scheduled only once
+        queue.submit(launcher("interview_3"));
+        assertEquals(1, delayedTasks.size());
+
+        clock.addAndGet(2000);
+        delayedTasks.remove(0).run();
+        assertEquals(List.of("interview_0", "interview_1"), started);
+        assertEquals(1, delayedTasks.size());
+
+        // too early run admits nothing and reschedules for the rest of interval
+        clock.addAndGet(500);
+        delayedTasks.remove(0).run();
+        assertEquals(2, started.size());
+        assertEquals(1500L, delays.get(delays.size() - 1));
+    }
+
+    @Test
+    public void failedLaunchReleasesSlot() {
+        ZigBeeInterviewQueue queue = createQueue(1, UNLIMITED_RATE);
+        queue.submit(done -> {
+            throw new IllegalStateException("launch failed");
+        });
+        assertEquals(0, queue.getRunning());
+        assertNull(queue.getProgress());
+
+        queue.submit(launcher("next"));
+        assertEquals(List.of("next"), started);
+        assertEquals(1, queue.getRunning());
+    }
+
+    @Test
+    public void resetFreesSlots() {
+        ZigBeeInterviewQueue queue = createQueue(1, UNLIMITED_RATE);
+        queue.submit(launcher("interview_0"));
+        queue.submit(launcher("interview_1"));
+        queue.reset();
+        assertEquals(0, queue.getRunning());
+        assertEquals(0, queue.getQueued());
+        assertNull(queue.getProgress());
+
+        // late done callback of dropped interview doesn't free slot of new one
+        Runnable staleDone = running.remove(0);
+        queue.submit(launcher("interview_2"));
+        queue.submit(launcher("interview_3"));
+        staleDone.run();
+        assertEquals(List.of("interview_0", "interview_2"), started);
+        assertEquals(1, queue.getRunning());
+        assertEquals(1, queue.getQueued());
+    }
+
+    private ZigBeeInterviewQueue createQueue(int concurrency, int ratePerMinute) {
+        return new ZigBeeInterviewQueue("test", () -> concurrency, () -> ratePerMinute, clock::get, (delay, task) -> {
+            delays.add(delay);
+            delayedTasks.add(task);
+        });
+    }
+
+    private Function<Runnable, ThreadContext<Void>> launcher(String name) {
+        return done -> {
+            started.add(name);
+            running.add(done);
+            return null;
+        };
+    }
+}
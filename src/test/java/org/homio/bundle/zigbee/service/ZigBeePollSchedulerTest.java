@@ -0,0 +1,52 @@
+package org.homio.bundle.zigbee.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.homio.bundle.zigbee.service.ZigBeePollScheduler.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+public class ZigBeePollSchedulerTest {
+
+    @Test
+    public void tokenBucketStartsEmpty() {
+        TokenBucket bucket = new TokenBucket(1000);
+        bucket.refill(5, 1000);
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tokenBucketRefillsWithRate() {
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.refill(4, 500);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        // fractional tokens are accumulated between ticks
+        bucket.refill(4, 625);
+        assertFalse(bucket.tryAcquire());
+        bucket.refill(4, 750);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tokenBucketHoldsAtMostOneSecondOfTokens() {
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.refill(3, 60_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tokenBucketIgnoresClockGoingBack() {
+        TokenBucket bucket = new TokenBucket(10_000);
+        bucket.refill(2, 5_000);
+        assertFalse(bucket.tryAcquire());
+        bucket.refill(2, 5_500);
+        assertTrue(bucket.tryAcquire());
+    }
+}
@@ -0,0 +1,137 @@
+package org.homio.bundle.zigbee.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.SneakyThrows;
+import org.homio.bundle.api.state.ButtonType.ButtonPressType;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ButtonEventSpec;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.EndpointDefinition;
+import org.homio.bundle.zigbee.util.DeviceConfiguration.ReportSpec;
+import org.junit.jupiter.api.Test;
+
+public class DeviceCatalogueTest {
+
+    @SneakyThrows
+    @Test
+    public void writeReadRoundTrip() {
+        DeviceConfiguration button = createDefinition("Vendor", Set.of("button.v1", "button.v2"));
+        EndpointDefinition buttonEndpoint = createEndpoint("button", 1, 0x0006);
+        Map<ButtonPressType, ButtonEventSpec> buttonEvents = new EnumMap<>(ButtonPressType.class);
+        for (ButtonPressType pressType : ButtonPressType.values()) {
+            buttonEvents.put(pressType, new ButtonEventSpec(0x0006, pressType.ordinal(), "param", "value", null, null));
+        }
+        buttonEndpoint.setButtonEvents(Map.copyOf(buttonEvents));
+        button.addEndpoint(buttonEndpoint);
+
+        DeviceConfiguration sensor = createDefinition("Other", Set.of("sensor.v1", "button.v1"));
+        EndpointDefinition temperature = createEndpoint("measurement_temperature", 2, 0x0402);
+        temperature.setId("temperature_1");
+        temperature.setUnit("°C");
+        temperature.setScale(0.01);
+        temperature.setReport(new ReportSpec(10, 3600, null));
+        sensor.addEndpoint(temperature);
+
+        DeviceCatalogue catalogue = writeAndRead(List.of(button, sensor));
+        assertEquals(2, catalogue.size());
+
+        DeviceConfiguration decodedButton = catalogue.find("button.v2").orElseThrow();
+        // first definition wins on duplicated model
+        assertSame(decodedButton, catalogue.find("button.v1").orElseThrow());
+        assertEquals("Vendor", decodedButton.getVendor());
+        assertEquals(button.getDefinitionHash(), decodedButton.getDefinitionHash());
+        EndpointDefinition decodedButtonEndpoint = decodedButton.getEndpoints().get(0);
+        assertEquals("button", decodedButtonEndpoint.getId());
+        assertNull(decodedButtonEndpoint.getReport());
+        assertEquals(ButtonPressType.values().length, decodedButtonEndpoint.getButtonEvents().size());
+        for (ButtonPressType pressType : ButtonPressType.values()) {
+            ButtonEventSpec event = decodedButtonEndpoint.getButtonEvents().get(pressType);
+            assertEquals(pressType.ordinal(), event.getCommandId());
+            assertEquals("value", event.getParameterValue());
+            assertNull(event.getAttributeId());
+        }
+
+        EndpointDefinition decodedTemperature = catalogue.find("sensor.v1").orElseThrow().getEndpoint(2, "measurement_temperature");
+        assertNotNull(decodedTemperature);
+        assertEquals("temperature_1", decodedTemperature.getId());
+        assertEquals("°C", decodedTemperature.getUnit());
+        assertEquals(0.01, decodedTemperature.getScale());
+        assertEquals(Set.of(0x0402), decodedTemperature.getInputClusters());
+        assertEquals(10, decodedTemperature.getReport().getMin());
+        assertEquals(3600, decodedTemperature.getReport().getMax());
+        assertNull(decodedTemperature.getReport().getChange());
+
+        assertFalse(catalogue.find("unknown").isPresent());
+        assertFalse(catalogue.find(null).isPresent());
+    }
+
+    @SneakyThrows
+    @Test
+    public void importZ2MDevices() {
+        JsonNode devicesNode;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("z2m_devices.json")) {
+            devicesNode = new ObjectMapper().readTree(inputStream);
+        }
+        DeviceCatalogue catalogue = writeAndRead(Z2MDefinitionImporter.convert(devicesNode));
+        DeviceConfiguration motionSensor = catalogue.find("lumi.sensor_motion.aq2").orElseThrow();
+        assertNotNull(motionSensor.getEndpoint(1, "sensor_occupancy"));
+        assertNotNull(motionSensor.getEndpoint(1, "measurement_illuminance"));
+        assertNotNull(motionSensor.getEndpoint(1, "battery_level"));
+    }
+
+    @SneakyThrows
+    @Test
+    public void importReportingOfExposedAttribute() {
+        JsonNode devicesNode = new ObjectMapper().readTree("[{\"model_id\": \"plug\", \"definition\": {\"vendor\": \"Vendor\", \"exposes\": ["
+            + "{\"property\": \"power\"}, {\"property\": \"current\"}]}, \"endpoints\": {\"1\": {"
+            + "\"clusters\": {\"input\": [\"haElectricalMeasurement\"]}, \"configured_reportings\": ["
+            + "{\"cluster\": \"haElectricalMeasurement\", \"attribute\": \"rmsCurrent\", \"minimum_report_interval\": 5,"
+            + " \"maximum_report_interval\": 300, \"reportable_change\": 2},"
+            + "{\"cluster\": \"haElectricalMeasurement\", \"attribute\": \"activePower\", \"minimum_report_interval\": 10,"
+            + " \"maximum_report_interval\": 600, \"reportable_change\": 1}]}}}]");
+        DeviceConfiguration plug = Z2MDefinitionImporter.convert(devicesNode).get(0);
+        ReportSpec power = plug.getEndpoint(1, "electrical_activepower").getReport();
+        assertEquals(10, power.getMin());
+        assertEquals(600, power.getMax());
+        assertEquals(1, power.getChange());
+        ReportSpec current = plug.getEndpoint(1, "electrical_rmscurrent").getReport();
+        assertEquals(5, current.getMin());
+        assertEquals(2, current.getChange());
+    }
+
+    private static DeviceCatalogue writeAndRead(List<DeviceConfiguration> definitions) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DeviceCatalogue.write(definitions, outputStream);
+        return DeviceCatalogue.read(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    private static DeviceConfiguration createDefinition(String vendor, Set<String> models) {
+        DeviceConfiguration definition = new DeviceConfiguration();
+        definition.setVendor(vendor);
+        definition.setModels(models);
+        definition.setIcon("fas fa-microchip");
+        definition.setIconColor("#57A4D1");
+        definition.setDefinitionHash(models.hashCode());
+        return definition;
+    }
+
+    private static EndpointDefinition createEndpoint(String typeId, int endpointId, int clusterId) {
+        EndpointDefinition endpoint = new EndpointDefinition();
+        endpoint.setTypeId(typeId);
+        endpoint.setEndpoint(endpointId);
+        endpoint.setInputClusters(Set.of(clusterId));
+        return endpoint;
+    }
+}